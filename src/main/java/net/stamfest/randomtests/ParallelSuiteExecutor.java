@@ -16,6 +16,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.BufferPool;
 import net.stamfest.randomtests.nist.NistTest;
 import net.stamfest.randomtests.nist.Result;
 import net.stamfest.randomtests.utils.Histogram;
@@ -42,8 +43,17 @@ public class ParallelSuiteExecutor extends Suite {
         return new ParallelSuiteExecutor(getStandardTestList());
     }
 
+    /**
+     * The number of test runs queued while all threads are busy. Once the
+     * queue is full, {@link #runSuite(Bits)} blocks until there is room again,
+     * so at most one thread per available processor plus QUEUE_CAPACITY
+     * plus one (blocked in runSuite) bit sequences are held at once.
+     */
+    public static final int QUEUE_CAPACITY = 10;
+
     private int threads = Runtime.getRuntime().availableProcessors();
     private ThreadPoolExecutor executor = null;
+    private volatile BufferPool bufferPool = null;
 
     /**
      * Create a test suite that is capable of running tests for multiple bit
@@ -55,6 +65,19 @@ public class ParallelSuiteExecutor extends Suite {
         super(tests);
     }
 
+    /**
+     * Set a pool to return the buffers of tested bit sequences to. Once all
+     * tests for a bit sequence passed to {@link #runSuite(Bits)} have
+     * finished, the sequence gets released to the pool, so the caller must
+     * not use it any longer after passing it in. Sequences not backed by a
+     * buffer of the pool are not affected.
+     *
+     * @param bufferPool The pool, or null to not release sequences.
+     */
+    public void setBufferPool(BufferPool bufferPool) {
+        this.bufferPool = bufferPool;
+    }
+
     /**
      * Start the internal executor used to run tests. Calling this usually is
      * not necessary, because the executor is started implicitly.
@@ -64,7 +87,7 @@ public class ParallelSuiteExecutor extends Suite {
         if (executor != null) {
             return;
         }
-        final ArrayBlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(10);
+        final ArrayBlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
         RejectedExecutionHandler rejectedHandler = new RejectedExecutionHandler() {
             @Override
             public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
@@ -128,8 +151,15 @@ public class ParallelSuiteExecutor extends Suite {
         Future<SuiteResult> f = executor.submit(new Callable<SuiteResult>() {
             @Override
             public SuiteResult call() throws Exception {
-                SuiteResult sr = ParallelSuiteExecutor.super.runSuite(bits);
-                return sr;
+                try {
+                    SuiteResult sr = ParallelSuiteExecutor.super.runSuite(bits);
+                    return sr;
+                } finally {
+                    BufferPool pool = bufferPool;
+                    if (pool != null) {
+                        pool.release(bits);
+                    }
+                }
             }
         });
 
@@ -46,6 +46,8 @@ public class Suite {
 
     AtomicInteger runCounter = new AtomicInteger(0);
 
+    boolean materialize = true;
+
     /**
      * Creates the NIST "standard test suite". This factory method constructs a
      * test suite containing all the tests from the NIST publication.
@@ -147,6 +149,26 @@ public class Suite {
         return rec;
     }
 
+    /**
+     * Controls if bit sequences passed to {@link #runSuite(Bits)} get
+     * materialized (see {@link Bits#materialize()}) before running the tests.
+     * This is enabled by default: Composed bit sequences then get evaluated
+     * only once instead of once per test, at the cost of a temporary copy of
+     * the sequence.
+     *
+     * @param materialize true to materialize bit sequences before testing.
+     */
+    public void setMaterialize(boolean materialize) {
+        this.materialize = materialize;
+    }
+
+    /**
+     * @return true if bit sequences get materialized before testing.
+     */
+    public boolean isMaterialize() {
+        return materialize;
+    }
+
     /**
      * Run all tests for the passed bit sequence. The results from multiple test
      * runs get combined using internal histograms. This method returns all the
@@ -155,11 +177,17 @@ public class Suite {
      * also increments an internal counter. The value of this counter can also
      * be retrieved from the SuiteResult object returned.
      *
+     * Unless disabled through {@link #setMaterialize(boolean)}, the sequence
+     * gets materialized once before running the tests.
+     *
      * @param b The bit sequence to test using all tests from the suite.
      * @return A SuiteResult object holding all results for all tests performed.
      */
     public SuiteResult runSuite(Bits b) {
         int runCnt = runCounter.getAndIncrement();
+        if (materialize) {
+            b = b.materialize();
+        }
         ArrayList<Result[]> allresults = new ArrayList<>(tests.size());
         for (NistTest test : tests) {
             List<Histogram> histos = histomap.get(test);
@@ -9,12 +9,12 @@ package net.stamfest.randomtests;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
-import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.LargeArrayBits;
+import net.stamfest.randomtests.bits.LongBits;
 import net.stamfest.randomtests.nist.BlockFrequency;
 import net.stamfest.randomtests.nist.Frequency;
 import net.stamfest.randomtests.nist.Result;
 import net.stamfest.randomtests.nist.Runs;
-import net.stamfest.randomtests.utils.IO;
 
 /**
  *
@@ -23,11 +23,11 @@ import net.stamfest.randomtests.utils.IO;
 public class TestRandom {
 
     public static void main(String argv[]) throws IOException {
-        Bits b;
+        LongBits b;
         if (argv.length > 0) {
-            b = IO.readBinary(new FileInputStream(argv[0]), Integer.MAX_VALUE);
+            b = new LargeArrayBits(new FileInputStream(argv[0]), LargeArrayBits.MAX_LENGTH);
         } else {
-            b = IO.readBinary(System.in, Integer.MAX_VALUE);
+            b = new LargeArrayBits(System.in, LargeArrayBits.MAX_LENGTH);
         }
 
         PrintWriter pw = new PrintWriter(System.out);
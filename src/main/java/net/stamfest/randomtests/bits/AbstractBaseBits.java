@@ -5,6 +5,12 @@
 package net.stamfest.randomtests.bits;
 
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 
 /**
  * An abstract Bits base class providing basic services that most
@@ -27,28 +33,45 @@ public abstract class AbstractBaseBits implements Bits {
         Bits bits = (Bits) obj;
         if (bits.getLength() != this.getLength()) return false;
         int l = getLength();
-        for (int i = 0; i < l; i++) {
-            if (bit(i) != bits.bit(i)) return false;
+        for (int i = 0; i < l; i += 64) {
+            if (word(i) != bits.word(i)) return false;
         }
         return true;
     }
     
     @Override
     public Iterator<Integer> iterator() {
-        return new Iterator<Integer>() {
-            private int n = 0;
-            private int len = getLength();
+        return bitIterator();
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt bitIterator() {
+        return Bits.super.bitIterator();
+    }
+
+    @Override
+    public Spliterator<Integer> spliterator() {
+        return Bits.super.spliterator();
+    }
 
-            @Override
-            public boolean hasNext() {
-                return n < len;
-            }
+    @Override
+    public IntStream bitStream() {
+        return Bits.super.bitStream();
+    }
+
+    @Override
+    public LongStream wordStream() {
+        return Bits.super.wordStream();
+    }
+
+    @Override
+    public void forEachBit(IntConsumer action) {
+        Bits.super.forEachBit(action);
+    }
 
-            @Override
-            public Integer next() {
-                return bit(n++);
-            }
-        };
+    @Override
+    public void forEachWord(LongConsumer action) {
+        Bits.super.forEachWord(action);
     }
     
     /*
@@ -66,6 +89,26 @@ public abstract class AbstractBaseBits implements Bits {
     Caused by: java.lang.IncompatibleClassChangeError: Interface method reference: net.stamfest.randomtests.bits.Bits.xor(Lnet/stamfest/randomtests/bits/Bits;)Lnet/stamfest/randomtests/bits/Bits;, is in an indirect superinterface of net.stamfest.randomte
         at net.stamfest.randomtests.bits.RNGBits$$NashornJavaAdapter.xor(Unknown Source)
      */
+    @Override
+    public long word(int i) {
+        return Bits.super.word(i);
+    }
+
+    @Override
+    public void getWords(int offset, int length, long[] dest, int destOffset) {
+        Bits.super.getWords(offset, length, dest, destOffset);
+    }
+
+    @Override
+    public Bits materialize() {
+        return Bits.super.materialize();
+    }
+
+    @Override
+    public RankIndex getRankIndex() {
+        return Bits.super.getRankIndex();
+    }
+
     @Override
     public Bits xor(Bits b) {
         return new XORBits(this, b);
@@ -35,6 +35,13 @@ public class ArrayBits extends AbstractBaseBits {
     protected byte[] array = null;
     protected int length = 0;
 
+    /*
+     * Only arrays allocated by this object (or its subclasses) are known not
+     * to be changed by others, the rank index is cached for those only.
+     */
+    private boolean ownsArray = false;
+    private volatile RankIndex rankIndex;
+
     protected ArrayBits() {
     }
 
@@ -62,6 +69,15 @@ public class ArrayBits extends AbstractBaseBits {
         }
         length = len;
     }
+
+    /**
+     * Constructs a bit sequence from an array allocated by the caller for
+     * this object only, which must not be changed afterwards.
+     */
+    ArrayBits(byte[] bytes, int len, boolean owned) {
+        this(bytes, len);
+        ownsArray = owned;
+    }
     
     /**
      * Turn any Bits object into a byte array based bit sequence. This copies
@@ -73,23 +89,21 @@ public class ArrayBits extends AbstractBaseBits {
     public ArrayBits(Bits bits) {
         array = new byte[(bits.getLength() + 7) / 8];
         length = bits.getLength();
+        ownsArray = true;
 
-        byte b = 0;
-        int n = 0;
+        // copy chunks of words to keep the temporary buffer small
+        long words[] = new long[Math.min(1024, (length + 63) / 64)];
         int j = 0;
-        
-        for (int bit : bits) {
-            b = (byte) ((b << 1) | (byte) bit);
-            n++;
-            if (n % 8 == 0) {
-                array[j++] = b;
-                b = 0;
+        for (int n = 0; n < length; n += 64 * words.length) {
+            int cnt = Math.min(64 * words.length, length - n);
+            bits.getWords(n, cnt, words, 0);
+            for (int k = 0; k < (cnt + 63) / 64; k++) {
+                long w = words[k];
+                for (int shift = 56; shift >= 0 && j < array.length; shift -= 8) {
+                    array[j++] = (byte) (w >>> shift);
+                }
             }
         }
-        if (n % 8 != 0) {
-            b = (byte) (b << (8 - n % 8));
-            array[j++] = b;
-        }
     }
 
     @Override
@@ -112,9 +126,120 @@ public class ArrayBits extends AbstractBaseBits {
         return length;
     }
 
+    @Override
+    public long word(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+
+        int byteIndex = i >>> 3;
+        int shift = i & 7;
+        long w = readLong(byteIndex);
+        if (shift != 0) {
+            int next = byteIndex + 8;
+            w = (w << shift) | ((next < array.length ? array[next] & 0xff : 0) >>> (8 - shift));
+        }
+
+        int left = length - i;
+        if (left < 64) {
+            w &= -1L << (64 - left);
+        }
+        return w;
+    }
+
+    @Override
+    public void getWords(int offset, int len, long[] dest, int destOffset) {
+        if (offset < 0 || len < 0 || offset + len > length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if ((offset & 7) != 0) {
+            super.getWords(offset, len, dest, destOffset);
+            return;
+        }
+
+        // byte aligned: no need to shift bits around
+        int byteIndex = offset >>> 3;
+        int j = destOffset;
+        for (int n = 0; n < len; n += 64, byteIndex += 8) {
+            long w = readLong(byteIndex);
+            int left = len - n;
+            if (left < 64) {
+                w &= -1L << (64 - left);
+            }
+            dest[j++] = w;
+        }
+    }
+
+    /**
+     * Read 8 bytes from the backing array starting at byteIndex as a big
+     * endian long. Bytes beyond the end of the array are read as 0.
+     */
+    private long readLong(int byteIndex) {
+        long w = 0;
+        if (byteIndex + 8 <= array.length) {
+            for (int k = 0; k < 8; k++) {
+                w = (w << 8) | (array[byteIndex + k] & 0xff);
+            }
+        } else {
+            for (int k = 0; k < 8; k++) {
+                int idx = byteIndex + k;
+                w = (w << 8) | (idx < array.length ? array[idx] & 0xff : 0);
+            }
+        }
+        return w;
+    }
+
     protected final void setArray(byte array[], int len) {
+        setArray(array, len, false);
+    }
+
+    /**
+     * Set the backing array.
+     *
+     * @param array The array backing the bit sequence.
+     * @param len   The length of the bit sequence.
+     * @param owned Whether the array was allocated for this object only and
+     *              will not be changed afterwards, so a rank index may be
+     *              cached.
+     */
+    protected final void setArray(byte array[], int len, boolean owned) {
         this.array = array;
         this.length = len;
+        this.ownsArray = owned;
+        this.rankIndex = null;
+    }
+
+    /**
+     * Returns a rank/select index for this sequence. If the underlying array
+     * was allocated by this object (see {@link #ArrayBits(Bits)}), the index
+     * is built on the first call and kept for later calls. Arrays passed in
+     * by the caller may change at any time, so a new index is built on every
+     * call for those.
+     *
+     * @return The rank/select index.
+     */
+    @Override
+    public RankIndex getRankIndex() {
+        if (!ownsArray) {
+            return new RankIndex(this);
+        }
+        RankIndex index = rankIndex;
+        if (index == null) {
+            index = new RankIndex(this);
+            rankIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * This bit sequence already is array based, so this returns the object
+     * itself.
+     *
+     * @return this
+     */
+    @Override
+    public ArrayBits materialize() {
+        return this;
     }
 
     @Override
@@ -36,6 +36,8 @@ public class BigIntegerBits extends AbstractBaseBits {
     private final int length;
     private final int bilength;
 
+    private volatile ArrayBits array;
+
     /**
      * Construct a bit sequence from a BigInteger. The length of the sequence is
      * set from {@link BigInteger#bitLength()}.
@@ -74,12 +76,35 @@ public class BigIntegerBits extends AbstractBaseBits {
         this(BigInteger.valueOf(l), length);
     }
     
+    /**
+     * Returns the bits of this sequence as an ArrayBits object. This is
+     * computed on first use using word level BigInteger operations and kept
+     * for later calls.
+     */
+    private ArrayBits array() {
+        ArrayBits a = array;
+        if (a == null) {
+            int nb = (int) ((length + 7L) / 8);
+            int pad = nb * 8 - length;
+
+            /*
+            Shift the number "left", so that its last bit becomes the last bit
+            of the byte array. Leading bytes beyond the length get cut off.
+             */
+            byte src[] = bi.shiftLeft(pad).toByteArray();
+            byte dst[] = new byte[nb];
+            int n = Math.min(nb, src.length);
+            System.arraycopy(src, src.length - n, dst, nb - n, n);
+
+            a = new ArrayBits(dst, length, true);
+            array = a;
+        }
+        return a;
+    }
+
     @Override
     public int bit(int i) {
-        if (i < (length - bilength)) {
-            return 0;
-        }
-        return bi.testBit(length - i - 1) ? 1 : 0;
+        return array().bit(i);
     }
 
     @Override
@@ -87,6 +112,26 @@ public class BigIntegerBits extends AbstractBaseBits {
         return length;
     }
 
+    @Override
+    public long word(int i) {
+        return array().word(i);
+    }
+
+    @Override
+    public void getWords(int offset, int len, long[] dest, int destOffset) {
+        array().getWords(offset, len, dest, destOffset);
+    }
+
+    @Override
+    public ArrayBits materialize() {
+        return array();
+    }
+
+    @Override
+    public RankIndex getRankIndex() {
+        return array().getRankIndex();
+    }
+
     /**
      * A utility function to obtain a BigInteger from any bit sequence. The
      * returned number will always be positive. The first bit of the bit
@@ -98,38 +143,28 @@ public class BigIntegerBits extends AbstractBaseBits {
     public static BigInteger getBigInteger(Bits source) {
         if (source instanceof BigIntegerBits) {
             BigIntegerBits other = (BigIntegerBits) source;
-            if (other.bi.signum() > 0) {
+            if (other.bi.signum() > 0 && other.length >= other.bilength) {
                 return other.bi;
             }
-        } else if (source instanceof ArrayBits) {
-            ArrayBits other = (ArrayBits) source;
-            if (other.getLength() % 8 == 0) {
-                return new BigInteger(1, other.array);
-            }
         }
-        
+
         /*
-        Turn the bit sequence into a byte array. We have to make sure
-        that the LSB of the BigInteger is bit source.bit(source.getLength()-1).
-        For this, we have to shift the entire sequence "right". n is just this 
-        number of bits we have to shift.
+        Turn the bit sequence into a byte array (word by word) and shift the
+        resulting number right by the number of padding bits at the end of the
+        last byte, so that the LSB of the BigInteger is bit
+        source.bit(source.getLength()-1).
          */
         int l = source.getLength();
-        byte[] array = new byte[(l + 7) / 8];
-
-        int n = l % 8;
-        if (n != 0) {
-            n = 8 - n;
+        int nb = (int) ((l + 7L) / 8);
+        byte[] bytes;
+        if (source instanceof ArrayBits && ((ArrayBits) source).array.length == nb) {
+            bytes = ((ArrayBits) source).array;
+        } else {
+            bytes = new ArrayBits(source).array;
         }
 
-        for (Integer b : source) {
-            if (b == 1) {
-                int bitNr = 7 - n % 8;
-                int byteNr = n / 8;
-                array[byteNr] |= 1 << bitNr;
-            }
-            n++;
-        }
-        return new BigInteger(1, array);
+        BigInteger result = new BigInteger(1, bytes);
+        int pad = nb * 8 - l;
+        return (pad == 0) ? result : result.shiftRight(pad);
     }
 }
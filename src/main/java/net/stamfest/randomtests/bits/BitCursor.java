@@ -0,0 +1,79 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits;
+
+/**
+ * Fast, unchecked read access to a range of a bit sequence for tight loops.
+ * The range is validated once upon construction. {@link #bitAt(int)} does not
+ * check its argument and does not dispatch to any Bits implementation, so
+ * loops using it can be unrolled by the JIT compiler.
+ *
+ * The byte array of an {@link ArrayBits} sequence (the type of all sequences
+ * read, generated or materialized) is accessed directly, nothing is copied.
+ * Other sequences get copied into a byte array once (see
+ * {@link ArrayBits#ArrayBits(Bits)}).
+ *
+ * @author Peter Stamfest
+ */
+public final class BitCursor {
+
+    private final byte bytes[];
+    private final int base;
+    private final int length;
+
+    /**
+     * Construct a cursor for a complete bit sequence.
+     *
+     * @param bits The bit sequence.
+     */
+    public BitCursor(Bits bits) {
+        this(bits, 0, bits.getLength());
+    }
+
+    /**
+     * Construct a cursor for a range of a bit sequence. Index 0 of the cursor
+     * corresponds to index offset of the bit sequence.
+     *
+     * @param bits   The bit sequence.
+     * @param offset The index of the first bit of the range.
+     * @param length The number of bits in the range.
+     */
+    public BitCursor(Bits bits, int offset, int length) {
+        if (offset < 0 || length < 0 || (long) offset + length > bits.getLength()) {
+            throw new IndexOutOfBoundsException();
+        }
+        this.length = length;
+        if (bits instanceof ArrayBits) {
+            bytes = ((ArrayBits) bits).array;
+            base = offset;
+        } else if (length == 0) {
+            bytes = new byte[0];
+            base = 0;
+        } else {
+            Bits range = (offset == 0 && length == bits.getLength()) ? bits : bits.subSeq(offset, length, 1);
+            bytes = new ArrayBits(range).array;
+            base = 0;
+        }
+    }
+
+    /**
+     * Returns a bit of the range. The index is NOT checked: Indices outside
+     * of the range may return anything or throw an exception.
+     *
+     * @param i The index of the bit within the range.
+     * @return The bit value (0 or 1).
+     */
+    public int bitAt(int i) {
+        int p = base + i;
+        return (bytes[p >>> 3] >>> (~p & 7)) & 1;
+    }
+
+    /**
+     * @return The number of bits in the range.
+     */
+    public int getLength() {
+        return length;
+    }
+}
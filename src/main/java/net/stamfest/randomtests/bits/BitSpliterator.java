@@ -0,0 +1,103 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits;
+
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * A spliterator over the bits of a bit sequence, reporting bits as primitive
+ * int values (0 or 1). Bits are read 64 at a time using {@link Bits#word(int)}.
+ * Splitting always happens at a multiple of 64, so no word of the sequence is
+ * read by more than one spliterator. This is the basis for
+ * {@link Bits#bitStream()}.
+ *
+ * @author Peter Stamfest
+ */
+public class BitSpliterator implements Spliterator.OfInt {
+
+    private final Bits bits;
+    private int index;
+    private final int fence;
+    private long w;
+
+    /**
+     * Construct a spliterator over a range of a bit sequence.
+     *
+     * @param bits   The bit sequence.
+     * @param origin The index of the first bit to report (inclusive).
+     * @param fence  The index of the last bit to report (exclusive).
+     */
+    public BitSpliterator(Bits bits, int origin, int fence) {
+        if (origin < 0 || fence > bits.getLength() || origin > fence) {
+            throw new IndexOutOfBoundsException();
+        }
+        this.bits = bits;
+        this.index = origin;
+        this.fence = fence;
+        if ((origin & 63) != 0 && origin < fence) {
+            w = bits.word(origin);
+        }
+    }
+
+    /**
+     * Construct a spliterator over all bits of a bit sequence.
+     *
+     * @param bits The bit sequence.
+     */
+    public BitSpliterator(Bits bits) {
+        this(bits, 0, bits.getLength());
+    }
+
+    @Override
+    public boolean tryAdvance(IntConsumer action) {
+        if (index >= fence) {
+            return false;
+        }
+        if ((index & 63) == 0) {
+            w = bits.word(index);
+        }
+        index++;
+        action.accept((int) (w >>> 63));
+        w <<= 1;
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(IntConsumer action) {
+        while (index < fence) {
+            if ((index & 63) == 0) {
+                w = bits.word(index);
+            }
+            int cnt = Math.min(64 - (index & 63), fence - index);
+            for (int k = 0; k < cnt; k++) {
+                action.accept((int) (w >>> 63));
+                w <<= 1;
+            }
+            index += cnt;
+        }
+    }
+
+    @Override
+    public Spliterator.OfInt trySplit() {
+        int mid = ((index + fence) >>> 1) & -64;
+        if (mid <= index) {
+            return null;
+        }
+        BitSpliterator prefix = new BitSpliterator(bits, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+}
@@ -7,6 +7,14 @@
 package net.stamfest.randomtests.bits;
 
 import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
 
 /**
  * A sequence of bits. A standard bit sequence is immutable. Implementations may
@@ -28,6 +36,10 @@ import java.util.Iterator;
  * }
  * </pre>
  *
+ * Loops over long sequences should rather use {@link #bitIterator()},
+ * {@link #forEachBit(IntConsumer)} or {@link #forEachWord(LongConsumer)}, which
+ * do not create an Integer object for every bit.
+ *
  *
  * @author Peter Stamfest
  */
@@ -55,6 +67,67 @@ public interface Bits extends Iterable<Integer> {
      */
     public int getLength();
 
+    /**
+     * Return 64 bits starting at position i packed into a long. The bit at
+     * position i becomes the most significant bit of the returned value, the
+     * bit at position i + 63 becomes the least significant bit. This is the
+     * same ordering {@link ArrayBits} uses for its bytes, so a word can be
+     * printed in hex and read from left to right.
+     *
+     * If fewer than 64 bits are available starting at i, the missing low order
+     * bits of the returned value are 0.
+     *
+     * The default implementation assembles the word bit by bit.
+     * Implementations with a suitable internal representation are encouraged
+     * to provide a faster implementation.
+     *
+     * @param i The index of the first bit to retrieve.
+     * @return The bits i to i + 63 as a long value.
+     * @throws IndexOutOfBoundsException if i is not a valid bit index.
+     */
+    public default long word(int i) {
+        int len = getLength();
+        if (i < 0 || i >= len) {
+            throw new IndexOutOfBoundsException();
+        }
+        int n = Math.min(64, len - i);
+        long w = 0;
+        for (int k = 0; k < n; k++) {
+            w = (w << 1) | bit(i + k);
+        }
+        return w << (64 - n);
+    }
+
+    /**
+     * Copy a range of bits into an array of longs. Bits are packed into the
+     * longs in the same way as done by {@link #word(int)}, that is bit offset
+     * ends up as the most significant bit of dest[destOffset], bit offset + 64
+     * as the most significant bit of dest[destOffset + 1] and so on. Unused
+     * low order bits of the last long written are set to 0.
+     *
+     * @param offset     The index of the first bit to copy.
+     * @param length     The number of bits to copy.
+     * @param dest       The array to copy the bits to. It must be able to hold
+     *                   (length + 63) / 64 longs starting at destOffset.
+     * @param destOffset The index of the first long to write in dest.
+     * @throws IndexOutOfBoundsException if the range of bits is not within the
+     *                                   sequence.
+     */
+    public default void getWords(int offset, int length, long[] dest, int destOffset) {
+        if (offset < 0 || length < 0 || offset + length > getLength()) {
+            throw new IndexOutOfBoundsException();
+        }
+        int j = destOffset;
+        for (int n = 0; n < length; n += 64) {
+            long w = word(offset + n);
+            int left = length - n;
+            if (left < 64) {
+                w &= -1L << (64 - left);
+            }
+            dest[j++] = w;
+        }
+    }
+
     /**
      * Returns an iterator to sequentially walk the bits of the sequence. Note
      * that for performance reasons the iterator caches the length of the
@@ -65,9 +138,23 @@ public interface Bits extends Iterable<Integer> {
      */
     @Override
     public default Iterator<Integer> iterator() {
-        return new Iterator<Integer>() {
+        return bitIterator();
+    }
+
+    /**
+     * Returns an iterator over the bits of the sequence reporting bits as
+     * primitive int values. The iterator caches the length of the sequence upon
+     * its construction and reads bits 64 at a time using {@link #word(int)}, so
+     * changes to bits not yet returned may or may not be seen by the
+     * iterator.
+     *
+     * @return The iterator.
+     */
+    public default PrimitiveIterator.OfInt bitIterator() {
+        return new PrimitiveIterator.OfInt() {
             private int n = 0;
-            private int len = getLength();
+            private final int len = getLength();
+            private long w;
 
             @Override
             public boolean hasNext() {
@@ -75,12 +162,117 @@ public interface Bits extends Iterable<Integer> {
             }
 
             @Override
-            public Integer next() {
-                return bit(n++);
+            public int nextInt() {
+                if (n >= len) {
+                    throw new NoSuchElementException();
+                }
+                if ((n & 63) == 0) {
+                    w = word(n);
+                }
+                n++;
+                int bit = (int) (w >>> 63);
+                w <<= 1;
+                return bit;
             }
         };
     }
 
+    /**
+     * Returns a spliterator over the bits of the sequence. The spliterator is
+     * a {@link BitSpliterator}, so it reports its exact size, splits on word
+     * boundaries and can be used as a {@link Spliterator.OfInt}.
+     *
+     * @return The spliterator.
+     */
+    @Override
+    public default Spliterator<Integer> spliterator() {
+        return new BitSpliterator(this);
+    }
+
+    /**
+     * Returns a stream of the bits of the sequence (as 0 or 1). Use
+     * {@link IntStream#parallel()} to process a long sequence in parallel.
+     *
+     * @return A sequential stream of the bits.
+     */
+    public default IntStream bitStream() {
+        return StreamSupport.intStream(new BitSpliterator(this), false);
+    }
+
+    /**
+     * Returns a stream of the 64 bit words of the sequence (see
+     * {@link #forEachWord(LongConsumer)}). Use {@link LongStream#parallel()}
+     * to process a long sequence in parallel, e.g.
+     * {@code bits.wordStream().parallel().map(Long::bitCount).sum()}.
+     *
+     * @return A sequential stream of the words.
+     */
+    public default LongStream wordStream() {
+        return StreamSupport.longStream(new WordSpliterator(this), false);
+    }
+
+    /**
+     * Pass every bit of the sequence to a consumer, starting with bit 0.
+     *
+     * @param action The consumer receiving the bits (as 0 or 1).
+     */
+    public default void forEachBit(IntConsumer action) {
+        int len = getLength();
+        for (int n = 0; n < len; n += 64) {
+            long w = word(n);
+            int cnt = Math.min(64, len - n);
+            for (int k = 0; k < cnt; k++) {
+                action.accept((int) (w >>> 63));
+                w <<= 1;
+            }
+        }
+    }
+
+    /**
+     * Pass the sequence as a series of 64 bit words (as returned by
+     * {@link #word(int)} for the indices 0, 64, 128, ...) to a consumer. If
+     * the length of the sequence is not a multiple of 64, the unused low order
+     * bits of the last word are 0.
+     *
+     * @param action The consumer receiving the words.
+     */
+    public default void forEachWord(LongConsumer action) {
+        int len = getLength();
+        for (int n = 0; n < len; n += 64) {
+            action.accept(word(n));
+        }
+    }
+
+    /**
+     * Evaluate this bit sequence into a contiguous, array based bit sequence.
+     * Composed sequences (like {@link XORBits}, {@link SubSequence} or
+     * {@link ConcatBits}) are views on other sequences, so every single bit
+     * access walks the whole chain of views. Materializing such a sequence
+     * once before running many tests on it avoids this and lets the tests see
+     * a single, array based implementation.
+     *
+     * The default implementation copies the sequence through
+     * {@link #getWords(int, int, long[], int)}. Implementations that already
+     * are array based return themselves.
+     *
+     * @return An array based bit sequence with the same bits as this one.
+     */
+    public default Bits materialize() {
+        return new ArrayBits(this);
+    }
+
+    /**
+     * Returns a {@link RankIndex} for this bit sequence, allowing to count
+     * the one bits within arbitrary ranges in constant time. The default
+     * implementation builds a new index on every call. Immutable, array based
+     * implementations build the index once and keep it.
+     *
+     * @return A rank/select index for this bit sequence.
+     */
+    public default RankIndex getRankIndex() {
+        return new RankIndex(this);
+    }
+
     /**
      * Return new XORBits(this, b). {@link XORBits}.
      *
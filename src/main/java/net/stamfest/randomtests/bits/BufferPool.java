@@ -0,0 +1,106 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * A pool of equally sized byte arrays used as backing storage for
+ * {@link ArrayBits} sequences. Producers of bit sequences (e.g. {@link RNGBits}
+ * or {@link net.stamfest.randomtests.utils.IO#readBinary(java.io.InputStream, int, byte[])})
+ * acquire a buffer, and consumers release the sequence once they are done
+ * with it, so that the buffer can be reused for the next sequence. When
+ * testing many long sequences in a row this avoids allocating (and garbage
+ * collecting) a large array for every single sequence.
+ *
+ * Only buffers handed out by the pool are taken back, releasing any other bit
+ * sequence is silently ignored. The content of acquired buffers is undefined.
+ * This class is thread safe.
+ *
+ * @author Peter Stamfest
+ */
+public class BufferPool {
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ArrayDeque<byte[]> free = new ArrayDeque<>();
+    private final Set<byte[]> handedOut = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Construct a pool of buffers.
+     *
+     * @param bufferSize The size of every buffer in bytes.
+     * @param maxPooled  The maximum number of unused buffers kept for reuse.
+     *                   Buffers released while this number is reached are
+     *                   left to the garbage collector.
+     */
+    public BufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize < 0 || maxPooled < 0) {
+            throw new IllegalArgumentException("negative buffer size or pool size");
+        }
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * @return The size of the buffers of this pool in bytes.
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Get a buffer from the pool. A new buffer is allocated if no unused
+     * buffer is available.
+     *
+     * @return A buffer of {@link #getBufferSize()} bytes.
+     */
+    public synchronized byte[] acquire() {
+        byte buf[] = free.poll();
+        if (buf == null) {
+            buf = new byte[bufferSize];
+        }
+        handedOut.add(buf);
+        return buf;
+    }
+
+    /**
+     * Return a buffer to the pool. Arrays not handed out by this pool (or
+     * already returned) are ignored.
+     *
+     * @param buf The buffer to return.
+     */
+    public synchronized void release(byte[] buf) {
+        if (buf == null || !handedOut.remove(buf)) {
+            return;
+        }
+        if (free.size() < maxPooled) {
+            free.push(buf);
+        }
+    }
+
+    /**
+     * Return the buffer backing a bit sequence to the pool. The sequence must
+     * not be used any longer afterwards. Sequences not backed by a buffer of
+     * this pool are ignored.
+     *
+     * @param bits The bit sequence.
+     */
+    public void release(Bits bits) {
+        if (bits instanceof ArrayBits) {
+            release(((ArrayBits) bits).array);
+        }
+    }
+
+    /**
+     * @return The number of unused buffers currently kept in the pool.
+     */
+    public synchronized int getPooledCount() {
+        return free.size();
+    }
+}
@@ -15,6 +15,13 @@ public final class ConcatBits extends AbstractBaseBits {
     private int offsets[];
     private int length;
 
+    /**
+     * The segment of the most recent access. Used to speed up sequential
+     * access. Concurrent access might leave a stale value, but it is always
+     * validated before use.
+     */
+    private int cursor = 0;
+
     /**
      * Construct a new bit sequence from any number of input bit sequences. No
      * data is copied.
@@ -54,11 +61,78 @@ public final class ConcatBits extends AbstractBaseBits {
 
     @Override
     public int bit(int i) {
-        for (int j = 0; j < bits.length; j++) {
-            if (i < offsets[j]) {
-                return bits[j].bit(i - ((j > 0) ? offsets[j - 1] : 0));
+        int j = segment(i);
+        return bits[j].bit(i - start(j));
+    }
+
+    @Override
+    public long word(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        long w = 0;
+        int filled = 0;
+        int pos = i;
+        while (filled < 64 && pos < length) {
+            int j = segment(pos);
+            int start = start(j);
+            int avail = Math.min(offsets[j] - pos, 64 - filled);
+            // bits beyond the end of the segment are reported as 0
+            w |= bits[j].word(pos - start) >>> filled;
+            filled += avail;
+            pos += avail;
+        }
+        return w;
+    }
+
+    /**
+     * Copy the concatenated sequence into a newly allocated byte array based
+     * bit sequence. Every segment gets copied word by word, so this is much
+     * faster than accessing the concatenation bit by bit if many bits are
+     * accessed.
+     *
+     * @return The copy.
+     */
+    @Override
+    public ArrayBits materialize() {
+        return new ArrayBits(this);
+    }
+
+    private int start(int j) {
+        return (j > 0) ? offsets[j - 1] : 0;
+    }
+
+    /**
+     * Find the segment holding bit i. Sequential access is served by checking
+     * the segment of the previous access and its successor first, otherwise a
+     * binary search is performed.
+     */
+    private int segment(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        int j = cursor;
+        if (i < offsets[j]) {
+            if (i >= start(j)) {
+                return j;
+            }
+        } else if (j + 1 < offsets.length && i < offsets[j + 1]) {
+            cursor = j + 1;
+            return j + 1;
+        }
+
+        // find the first segment ending after i, this skips empty segments
+        int lo = 0;
+        int hi = offsets.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (offsets[mid] > i) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
             }
         }
-        throw new IndexOutOfBoundsException();
+        cursor = lo;
+        return lo;
     }
 }
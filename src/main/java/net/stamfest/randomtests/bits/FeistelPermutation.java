@@ -0,0 +1,100 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits;
+
+import java.util.Random;
+
+/**
+ * A keyed pseudo random permutation computed on the fly. In contrast to
+ * {@link RandomPermutation}, no table of mapped indices is kept, so this
+ * permutation needs a constant amount of memory regardless of its length and
+ * can be constructed instantly.
+ *
+ * The permutation is a balanced Feistel network on the smallest domain of
+ * 2^(2h) indices covering the length. Indices mapped outside of the length
+ * are mapped again until they fall within the length ("cycle walking"). As the
+ * domain is less than four times the length, this takes less than four
+ * round trips through the network on average.
+ *
+ * @author Peter Stamfest
+ */
+public class FeistelPermutation implements Permutation {
+
+    private static final int ROUNDS = 6;
+
+    private final int length;
+    private final int halfBits;
+    private final long halfMask;
+    private final long roundKeys[] = new long[ROUNDS];
+
+    /**
+     * Construct a permutation from a key. The same key and length always
+     * yield the same permutation.
+     *
+     * @param key    The key selecting the permutation.
+     * @param length The length of the permutation.
+     */
+    public FeistelPermutation(long key, int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length must not be negative");
+        }
+        this.length = length;
+
+        int bits = (length > 1) ? 32 - Integer.numberOfLeadingZeros(length - 1) : 1;
+        halfBits = Math.max(1, (bits + 1) / 2);
+        halfMask = (1L << halfBits) - 1;
+
+        long k = key;
+        for (int r = 0; r < ROUNDS; r++) {
+            k += 0x9E3779B97F4A7C15L;
+            roundKeys[r] = mix(k);
+        }
+    }
+
+    /**
+     * Construct a permutation using a key drawn from a random number
+     * generator.
+     *
+     * @param rng    The random number generator to use.
+     * @param length The length of the permutation.
+     */
+    public FeistelPermutation(Random rng, int length) {
+        this(rng.nextLong(), length);
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private long encrypt(long x) {
+        long l = x >>> halfBits;
+        long r = x & halfMask;
+        for (int round = 0; round < ROUNDS; round++) {
+            long t = l ^ (mix(r ^ roundKeys[round]) & halfMask);
+            l = r;
+            r = t;
+        }
+        return (l << halfBits) | r;
+    }
+
+    @Override
+    public int getMappedIndex(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        long x = index;
+        do {
+            x = encrypt(x);
+        } while (x >= length);
+        return (int) x;
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+}
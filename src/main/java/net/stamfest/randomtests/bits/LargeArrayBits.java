@@ -0,0 +1,124 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * A {@link LongBits} implementation keeping data stored in an array of longs.
+ * The layout is the same as for {@link LongArrayBits}, but the sequence is
+ * addressed by long indices, so it may hold up to 64 * (2^31 - 1) bits.
+ *
+ * @author Peter Stamfest
+ */
+public class LargeArrayBits implements LongBits {
+
+    /**
+     * The maximum number of bits a LargeArrayBits object can hold.
+     */
+    public static final long MAX_LENGTH = 64L * (Integer.MAX_VALUE - 8);
+
+    private long[] words;
+    private long length;
+
+    /**
+     * Constructs a bit sequence from an array of longs. The array is used by
+     * reference.
+     *
+     * @param words  The longs making up the bit sequence.
+     * @param length The length of the bit sequence. This must not be larger
+     *               than 64 * words.length.
+     */
+    public LargeArrayBits(long[] words, long length) {
+        if (length < 0 || length > 64L * words.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        this.words = words;
+        this.length = length;
+    }
+
+    /**
+     * Reads a bit sequence from a binary input stream. Every byte defines 8
+     * bits, where bit 7 of the very first byte corresponds to bit 0 of the bit
+     * sequence. If the stream ends early, the sequence is shorter than
+     * requested.
+     *
+     * @param is          The InputStream to read the bit stream from.
+     * @param maxBitCount The number of bits to read. This is silently limited
+     *                    to {@link #MAX_LENGTH}.
+     * @throws IOException Passed on from InputStream operations.
+     */
+    public LargeArrayBits(InputStream is, long maxBitCount) throws IOException {
+        maxBitCount = Math.min(maxBitCount, MAX_LENGTH);
+        long maxByteCount = (maxBitCount + 7) / 8;
+        int maxWordCount = (int) ((maxBitCount + 63) / 64);
+        byte buf[] = new byte[(int) Math.min(maxByteCount, 65536)];
+        words = new long[Math.min(maxWordCount, 8192)];
+
+        long n = 0;
+        int cnt;
+        while (n < maxByteCount
+                && (cnt = is.read(buf, 0, (int) Math.min(buf.length, maxByteCount - n))) > 0) {
+            if ((n + cnt + 7) / 8 > words.length) {
+                // enlarge buffer
+                words = Arrays.copyOf(words, (int) Math.min(maxWordCount,
+                                                            Math.max(2L * words.length, (n + cnt + 7) / 8)));
+            }
+            for (int k = 0; k < cnt; k++, n++) {
+                words[(int) (n >>> 3)] |= (buf[k] & 0xffL) << (56 - 8 * (n & 7));
+            }
+        }
+
+        length = (n == maxByteCount) ? maxBitCount : n * 8;
+        if ((length + 63) / 64 < words.length) {
+            words = Arrays.copyOf(words, (int) ((length + 63) / 64));
+        }
+        if (length % 64 != 0) {
+            words[(int) (length / 64)] &= -1L << (64 - length % 64);
+        }
+    }
+
+    @Override
+    public int bit(long i) {
+        if (i >= length || i < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        return (int) (words[(int) (i >>> 6)] >>> (63 - (i & 63))) & 1;
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public long word(long i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        int wordIndex = (int) (i >>> 6);
+        int shift = (int) (i & 63);
+        long w = words[wordIndex];
+        if (shift != 0) {
+            w <<= shift;
+            if (wordIndex + 1 < words.length) {
+                w |= words[wordIndex + 1] >>> (64 - shift);
+            }
+        }
+
+        long left = length - i;
+        if (left < 64) {
+            w &= -1L << (64 - left);
+        }
+        return w;
+    }
+
+    @Override
+    public String toString() {
+        return "LargeArrayBits[len=" + length + "]";
+    }
+}
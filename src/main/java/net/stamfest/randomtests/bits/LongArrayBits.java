@@ -0,0 +1,295 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A Bits implementation keeping data stored in an array of longs. The bit
+ * ordering is the same as for {@link ArrayBits}: The long at position 0 of the
+ * underlying array holds bits 0 to 63 of the sequence, where bit 0 is mapped to
+ * the most significant bit and bit 63 is mapped to the least significant bit.
+ * The second long holds bits 64 - 127 and so on.
+ *
+ * This layout allows to hand out 64 bit aligned words without any shifting and
+ * to implement counting operations like {@link #bitCount(int, int)} using
+ * {@link Long#bitCount(long)}.
+ *
+ * @author Peter Stamfest
+ */
+public class LongArrayBits extends AbstractBaseBits {
+
+    protected long[] words;
+    protected int length;
+
+    // the rank index is cached only for arrays allocated by this object
+    private boolean ownsArray = false;
+    private volatile RankIndex rankIndex;
+
+    /**
+     * Constructs a bit sequence from an array of longs. The array is used by
+     * reference.
+     *
+     * @param words  The longs making up the bit sequence.
+     * @param length The length of the bit sequence. This must not be larger
+     *               than 64 * words.length.
+     */
+    public LongArrayBits(long[] words, int length) {
+        if (length < 0 || length > 64L * words.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        this.words = words;
+        this.length = length;
+    }
+
+    /**
+     * Constructs a bit sequence initialised from a random number generator
+     * using {@link Random#nextLong()}. If the requested length is not a
+     * multiple of 64, some bits of the very last long obtained will be lost.
+     *
+     * @param rng    The random number generator to use.
+     * @param length The length of the bit sequence requested.
+     */
+    public LongArrayBits(Random rng, int length) {
+        this(new long[(int) ((length + 63L) / 64)], length);
+        for (int i = 0; i < words.length; i++) {
+            words[i] = rng.nextLong();
+        }
+        clearTail();
+        ownsArray = true;
+    }
+
+    /**
+     * Reads a bit sequence from a binary input stream. The same conventions as
+     * for {@link net.stamfest.randomtests.utils.IO#readBinary(InputStream, int)}
+     * apply: Every byte defines 8 bits, where bit 7 of the very first byte
+     * corresponds to bit 0 of the bit sequence. If the stream ends early, the
+     * sequence is shorter than requested.
+     *
+     * @param is          The InputStream to read the bit stream from.
+     * @param maxBitCount The number of bits to read.
+     * @throws IOException Passed on from InputStream operations.
+     */
+    public LongArrayBits(InputStream is, int maxBitCount) throws IOException {
+        int maxByteCount = (int) ((maxBitCount + 7L) / 8);
+        int maxWordCount = (int) ((maxBitCount + 63L) / 64);
+        byte buf[] = new byte[Math.min(maxByteCount, 8192)];
+        words = new long[Math.min(maxWordCount, 1024)];
+
+        int n = 0;
+        int cnt;
+        while (n < maxByteCount
+                && (cnt = is.read(buf, 0, Math.min(buf.length, maxByteCount - n))) > 0) {
+            if ((n + cnt + 7) / 8 > words.length) {
+                // enlarge buffer
+                words = Arrays.copyOf(words, (int) Math.min(maxWordCount,
+                                                            Math.max(2L * words.length, (n + cnt + 7) / 8)));
+            }
+            for (int k = 0; k < cnt; k++, n++) {
+                words[n >>> 3] |= (buf[k] & 0xffL) << (56 - 8 * (n & 7));
+            }
+        }
+
+        length = (n == maxByteCount) ? maxBitCount : n * 8;
+        if ((length + 63L) / 64 < words.length) {
+            words = Arrays.copyOf(words, (int) ((length + 63L) / 64));
+        }
+        clearTail();
+        ownsArray = true;
+    }
+
+    /**
+     * Turn any Bits object into a long array based bit sequence. This copies
+     * all the bits into a newly allocated array, so any changes to the input
+     * bit sequence afterwards are not reflected in this object.
+     *
+     * @param bits The input bit sequence.
+     */
+    public LongArrayBits(Bits bits) {
+        this(new long[(int) ((bits.getLength() + 63L) / 64)], bits.getLength());
+        bits.getWords(0, length, words, 0);
+        ownsArray = true;
+    }
+
+    private void clearTail() {
+        if (length % 64 != 0) {
+            words[length / 64] &= -1L << (64 - length % 64);
+        }
+    }
+
+    @Override
+    public int bit(int i) {
+        if (i >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return (int) (words[i >>> 6] >>> (63 - (i & 63))) & 1;
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public long word(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        int wordIndex = i >>> 6;
+        int shift = i & 63;
+        long w = words[wordIndex];
+        if (shift != 0) {
+            w <<= shift;
+            if (wordIndex + 1 < words.length) {
+                w |= words[wordIndex + 1] >>> (64 - shift);
+            }
+        }
+
+        int left = length - i;
+        if (left < 64) {
+            w &= -1L << (64 - left);
+        }
+        return w;
+    }
+
+    @Override
+    public void getWords(int offset, int len, long[] dest, int destOffset) {
+        if (offset < 0 || len < 0 || offset + len > length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if ((offset & 63) != 0) {
+            super.getWords(offset, len, dest, destOffset);
+            return;
+        }
+        int count = (int) ((len + 63L) / 64);
+        System.arraycopy(words, offset >>> 6, dest, destOffset, count);
+        if (len % 64 != 0) {
+            dest[destOffset + count - 1] &= -1L << (64 - len % 64);
+        }
+    }
+
+    /**
+     * Count the number of one bits within a range of the sequence.
+     *
+     * @param from The index of the first bit to consider (inclusive).
+     * @param to   The index of the last bit to consider (exclusive).
+     * @return The number of one bits with an index from "from" to "to" - 1.
+     */
+    public int bitCount(int from, int to) {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (from == to) {
+            return 0;
+        }
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long firstMask = -1L >>> (from & 63);
+        long lastMask = -1L << (63 - ((to - 1) & 63));
+
+        if (first == last) {
+            return Long.bitCount(words[first] & firstMask & lastMask);
+        }
+        int count = Long.bitCount(words[first] & firstMask);
+        for (int i = first + 1; i < last; i++) {
+            count += Long.bitCount(words[i]);
+        }
+        return count + Long.bitCount(words[last] & lastMask);
+    }
+
+    /**
+     * Find the first one bit at or after the given index.
+     *
+     * @param from The index to start searching at.
+     * @return The index of the next one bit or -1 if there is no such bit.
+     */
+    public int nextSetBit(int from) {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (from >= length) {
+            return -1;
+        }
+        int wordIndex = from >>> 6;
+        long w = words[wordIndex] & (-1L >>> (from & 63));
+        while (true) {
+            if (w != 0) {
+                int i = wordIndex * 64 + Long.numberOfLeadingZeros(w);
+                return i < length ? i : -1;
+            }
+            if (++wordIndex >= words.length) {
+                return -1;
+            }
+            w = words[wordIndex];
+        }
+    }
+
+    /**
+     * Find the first zero bit at or after the given index.
+     *
+     * @param from The index to start searching at.
+     * @return The index of the next zero bit or -1 if there is no such bit.
+     */
+    public int nextClearBit(int from) {
+        if (from < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (from >= length) {
+            return -1;
+        }
+        int wordIndex = from >>> 6;
+        long w = ~words[wordIndex] & (-1L >>> (from & 63));
+        while (true) {
+            if (w != 0) {
+                int i = wordIndex * 64 + Long.numberOfLeadingZeros(w);
+                return i < length ? i : -1;
+            }
+            if (++wordIndex >= words.length) {
+                return -1;
+            }
+            w = ~words[wordIndex];
+        }
+    }
+
+    /**
+     * Returns a rank/select index for this sequence. If the underlying array
+     * was allocated by this object, the index is built on the first call and
+     * kept for later calls. Arrays passed in by the caller may change at any
+     * time, so a new index is built on every call for those.
+     *
+     * @return The rank/select index.
+     */
+    @Override
+    public RankIndex getRankIndex() {
+        if (!ownsArray) {
+            return new RankIndex(this);
+        }
+        RankIndex index = rankIndex;
+        if (index == null) {
+            index = new RankIndex(this);
+            rankIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * This bit sequence already is array based, so this returns the object
+     * itself.
+     *
+     * @return this
+     */
+    @Override
+    public LongArrayBits materialize() {
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return "LongArrayBits[len=" + length + "]";
+    }
+}
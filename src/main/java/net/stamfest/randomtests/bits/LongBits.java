@@ -0,0 +1,113 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits;
+
+/**
+ * A sequence of bits addressed by long indices. This is the counterpart of
+ * {@link Bits} for sequences that may be longer than Integer.MAX_VALUE bits,
+ * eg. for a multi gigabyte capture from an entropy source.
+ *
+ * The same conventions as for {@link Bits} apply: Bits are reported as 0 or 1,
+ * and words are packed with the lowest bit index ending up as the most
+ * significant bit.
+ *
+ * Use {@link #wrap(Bits)} to view an ordinary bit sequence as a LongBits and
+ * {@link #subSeq(long, int)} to view a part of a LongBits as an ordinary bit
+ * sequence. Neither operation copies any data.
+ *
+ * @author Peter Stamfest
+ */
+public interface LongBits {
+
+    /**
+     * Return the bit at position i.
+     *
+     * @param i The bit index to retrieve.
+     * @return The bit as an integer value, which MUST be 0 or 1.
+     * @throws RuntimeException Access to bits beyond the length of the sequence
+     *                          may throw a runtime exception.
+     */
+    public int bit(long i);
+
+    /**
+     * Get the length of the sequence.
+     *
+     * @return The length of the bit sequence.
+     */
+    public long getLength();
+
+    /**
+     * Return 64 bits starting at position i packed into a long. See
+     * {@link Bits#word(int)} for details.
+     *
+     * @param i The index of the first bit to retrieve.
+     * @return The bits i to i + 63 as a long value.
+     * @throws IndexOutOfBoundsException if i is not a valid bit index.
+     */
+    public default long word(long i) {
+        long len = getLength();
+        if (i < 0 || i >= len) {
+            throw new IndexOutOfBoundsException();
+        }
+        int n = (int) Math.min(64, len - i);
+        long w = 0;
+        for (int k = 0; k < n; k++) {
+            w = (w << 1) | bit(i + k);
+        }
+        return w << (64 - n);
+    }
+
+    /**
+     * Count the number of one bits within a range of the sequence. The bits
+     * are counted 64 at a time using {@link #word(long)} and
+     * {@link Long#bitCount(long)}.
+     *
+     * @param from The index of the first bit to consider (inclusive).
+     * @param to   The index of the last bit to consider (exclusive).
+     * @return The number of one bits with an index from "from" to "to" - 1.
+     */
+    public default long bitCount(long from, long to) {
+        if (from < 0 || to > getLength() || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+        long count = 0;
+        long p = from;
+        for (; p + 64 <= to; p += 64) {
+            count += Long.bitCount(word(p));
+        }
+        if (p < to) {
+            count += Long.bitCount(word(p) >>> (64 - (to - p)));
+        }
+        return count;
+    }
+
+    /**
+     * Returns a part of this sequence as an ordinary bit sequence. No data is
+     * copied.
+     *
+     * @param offset The index of the first bit of the subsequence.
+     * @param length The length of the subsequence.
+     * @return The subsequence.
+     */
+    public default Bits subSeq(long offset, int length) {
+        return new LongBitsWindow(this, offset, length);
+    }
+
+    /**
+     * View an ordinary bit sequence as a LongBits. No data is copied.
+     *
+     * @param bits The bit sequence to wrap.
+     * @return The long indexed view of the sequence.
+     */
+    public static LongBits wrap(Bits bits) {
+        if (bits instanceof LongBitsWindow) {
+            LongBitsWindow window = (LongBitsWindow) bits;
+            if (window.getOffset() == 0 && window.getLength() == window.getBase().getLength()) {
+                return window.getBase();
+            }
+        }
+        return new LongBitsAdapter(bits);
+    }
+}
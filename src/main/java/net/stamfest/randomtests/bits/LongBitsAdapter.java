@@ -0,0 +1,49 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits;
+
+/**
+ * Adapts an ordinary bit sequence to the {@link LongBits} interface. Use
+ * {@link LongBits#wrap(Bits)} to obtain instances.
+ *
+ * @author Peter Stamfest
+ */
+final class LongBitsAdapter implements LongBits {
+
+    private final Bits base;
+
+    LongBitsAdapter(Bits base) {
+        this.base = base;
+    }
+
+    @Override
+    public int bit(long i) {
+        if (i > Integer.MAX_VALUE) {
+            throw new IndexOutOfBoundsException();
+        }
+        return base.bit((int) i);
+    }
+
+    @Override
+    public long getLength() {
+        return base.getLength();
+    }
+
+    @Override
+    public long word(long i) {
+        if (i > Integer.MAX_VALUE) {
+            throw new IndexOutOfBoundsException();
+        }
+        return base.word((int) i);
+    }
+
+    @Override
+    public Bits subSeq(long offset, int length) {
+        if (offset == 0 && length == base.getLength()) {
+            return base;
+        }
+        return LongBits.super.subSeq(offset, length);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits;
+
+/**
+ * A bit sequence representing a consecutive part of a {@link LongBits}
+ * sequence. This allows to run everything accepting ordinary {@link Bits} on
+ * parts of sequences too long to be addressed by int indices. No data is
+ * copied.
+ *
+ * @author Peter Stamfest
+ */
+public class LongBitsWindow extends AbstractBaseBits {
+
+    private final LongBits base;
+    private final long offset;
+    private final int length;
+
+    /**
+     * Constructs a window into a long indexed bit sequence.
+     *
+     * @param base   The base sequence.
+     * @param offset The index within the base sequence that becomes bit 0 of
+     *               the window.
+     * @param length The length of the window.
+     * @throws IllegalArgumentException if the window does not fit into the
+     *                                  base sequence.
+     */
+    public LongBitsWindow(LongBits base, long offset, int length) throws IllegalArgumentException {
+        if (offset < 0 || length < 0 || offset + length > base.getLength()) {
+            throw new IllegalArgumentException("window out of bounds");
+        }
+        this.base = base;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int bit(int i) {
+        if (i >= length || i < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        return base.bit(offset + i);
+    }
+
+    @Override
+    public int getLength() {
+        return length;
+    }
+
+    @Override
+    public long word(int i) {
+        if (i >= length || i < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        long w = base.word(offset + i);
+        int left = length - i;
+        if (left < 64) {
+            w &= -1L << (64 - left);
+        }
+        return w;
+    }
+
+    /**
+     * Get the base sequence this window refers to.
+     *
+     * @return The base sequence.
+     */
+    public LongBits getBase() {
+        return base;
+    }
+
+    /**
+     * Get the offset of the window within the base sequence.
+     *
+     * @return The offset.
+     */
+    public long getOffset() {
+        return offset;
+    }
+}
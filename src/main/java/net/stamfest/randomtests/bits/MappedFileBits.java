@@ -0,0 +1,158 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A long indexed bit sequence backed by a memory mapped file. The file is
+ * interpreted the same way as binary input read through
+ * {@link net.stamfest.randomtests.utils.IO#readBinary(java.io.InputStream, int)}:
+ * Every byte defines 8 bits, where bit 7 of the very first byte corresponds to
+ * bit 0 of the bit sequence.
+ *
+ * No data gets copied to the heap, so the size of the files that can be
+ * assessed is bounded by the address space and the page cache rather than by
+ * the heap size. As a single mapping is limited to 2 GB, the file is mapped as
+ * multiple regions. Use {@link #subSeq(long, int)} to obtain (non-copying)
+ * ordinary bit sequences from the file.
+ *
+ * Note that Java 8 does not offer a way to explicitly unmap a file, so the
+ * mapped regions are released only once they got garbage collected, even after
+ * calling {@link #close()}.
+ *
+ * @author Peter Stamfest
+ */
+public class MappedFileBits implements LongBits, Closeable {
+
+    private static final int REGION_SHIFT = 30;
+    private static final long REGION_SIZE = 1L << REGION_SHIFT;
+    private static final long REGION_MASK = REGION_SIZE - 1;
+
+    /**
+     * Number of bytes every region overlaps with the next one. This allows to
+     * read a word at any bit offset from a single region.
+     */
+    private static final int OVERLAP = 16;
+
+    private final RandomAccessFile file;
+    private final MappedByteBuffer[] regions;
+    private final long byteLength;
+    private final long length;
+
+    /**
+     * Map an entire file.
+     *
+     * @param f The file to map.
+     * @throws IOException Passed on from file operations.
+     */
+    public MappedFileBits(File f) throws IOException {
+        this(f, Long.MAX_VALUE);
+    }
+
+    /**
+     * Map a file, but limit the length of the bit sequence.
+     *
+     * @param f           The file to map.
+     * @param maxBitCount The maximum length of the bit sequence. If the file is
+     *                    shorter, the length of the sequence is 8 times the
+     *                    file size.
+     * @throws IOException Passed on from file operations.
+     */
+    public MappedFileBits(File f, long maxBitCount) throws IOException {
+        file = new RandomAccessFile(f, "r");
+        try {
+            FileChannel channel = file.getChannel();
+            long size = channel.size();
+
+            length = Math.min(maxBitCount, size * 8);
+            byteLength = (length + 7) / 8;
+
+            int count = (int) ((byteLength + REGION_SIZE - 1) >>> REGION_SHIFT);
+            regions = new MappedByteBuffer[count];
+            for (int r = 0; r < count; r++) {
+                long start = (long) r << REGION_SHIFT;
+                long end = Math.min(size, start + REGION_SIZE + OVERLAP);
+                regions[r] = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            }
+        } catch (IOException | RuntimeException ex) {
+            file.close();
+            throw ex;
+        }
+    }
+
+    @Override
+    public int bit(long i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        long byteIndex = i >>> 3;
+        MappedByteBuffer region = regions[(int) (byteIndex >>> REGION_SHIFT)];
+        return (region.get((int) (byteIndex & REGION_MASK)) >>> (7 - (int) (i & 7))) & 1;
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public long word(long i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        long byteIndex = i >>> 3;
+        int shift = (int) (i & 7);
+        MappedByteBuffer region = regions[(int) (byteIndex >>> REGION_SHIFT)];
+        int pos = (int) (byteIndex & REGION_MASK);
+
+        long w;
+        if (pos + 9 <= region.limit()) {
+            // MappedByteBuffers are big endian by default
+            w = region.getLong(pos);
+            if (shift != 0) {
+                w = (w << shift) | ((region.get(pos + 8) & 0xff) >>> (8 - shift));
+            }
+        } else {
+            // close to the end of the file
+            w = 0;
+            for (int k = 0; k < 8; k++) {
+                w = (w << 8) | (pos + k < region.limit() ? region.get(pos + k) & 0xff : 0);
+            }
+            if (shift != 0 && pos + 8 < region.limit()) {
+                w = (w << shift) | ((region.get(pos + 8) & 0xff) >>> (8 - shift));
+            } else {
+                w <<= shift;
+            }
+        }
+
+        long left = length - i;
+        if (left < 64) {
+            w &= -1L << (64 - left);
+        }
+        return w;
+    }
+
+    /**
+     * Close the underlying file. See the class documentation for notes on
+     * unmapping.
+     *
+     * @throws IOException Passed on from file operations.
+     */
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    @Override
+    public String toString() {
+        return "MappedFileBits[len=" + length + "]";
+    }
+}
@@ -53,6 +53,17 @@ public class MutableArrayBits extends ArrayBits {
         this(array, array.length * 8);
     }
 
+    /**
+     * As the bits of a mutable sequence may change at any time, this builds a
+     * new index on every call.
+     *
+     * @return A new rank/select index for the current state of the sequence.
+     */
+    @Override
+    public RankIndex getRankIndex() {
+        return new RankIndex(this);
+    }
+
     /**
      * Fill all bytes in the underlying byte array with a constant value. This
      * is probably most useful to initialise the bit sequence to all-zero or
@@ -124,7 +135,7 @@ public class MutableArrayBits extends ArrayBits {
      * @param other The bit sequence to assign this from.
      */
     public void assignFrom(Bits other) {
-        if (array.length * 8 < (other.getLength() / 8 + 1)) {
+        if (array.length < other.getLength() / 8 + 1) {
             array = new byte[other.getLength() / 8 + 1];
         }
         length = other.getLength();
@@ -134,11 +145,157 @@ public class MutableArrayBits extends ArrayBits {
             ArrayBits aother = (ArrayBits) other;
             System.arraycopy(aother.array, 0, array, 0, l);
         } else {
-            int l = other.getLength();
+            copyFrom(other, 0, 0, length);
+        }
+    }
+
+    /**
+     * Copy a range of bits from another sequence (or from this sequence) into
+     * this sequence. The bits are transferred 64 at a time.
+     *
+     * @param src       The sequence to copy bits from. This may be this
+     *                  sequence, overlapping ranges are handled correctly.
+     * @param srcOffset The index of the first bit to copy within src.
+     * @param offset    The index within this sequence receiving the first
+     *                  bit.
+     * @param len       The number of bits to copy.
+     */
+    public void copyFrom(Bits src, int srcOffset, int offset, int len) {
+        transfer(src, srcOffset, offset, len, false);
+    }
+
+    /**
+     * XOR a range of bits from another sequence (or from this sequence) into
+     * this sequence. Bit offset + i of this sequence becomes the XOR of itself
+     * and bit srcOffset + i of src. The bits are processed 64 at a time.
+     *
+     * @param src       The sequence to XOR bits from. This may be this
+     *                  sequence, overlapping ranges are handled correctly.
+     * @param srcOffset The index of the first bit to use within src.
+     * @param offset    The index within this sequence of the first bit to
+     *                  change.
+     * @param len       The number of bits to change.
+     */
+    public void xorFrom(Bits src, int srcOffset, int offset, int len) {
+        transfer(src, srcOffset, offset, len, true);
+    }
+
+    /**
+     * Set all bits within a range to the same value.
+     *
+     * @param from  The index of the first bit to set (inclusive).
+     * @param to    The index of the last bit to set (exclusive).
+     * @param value The new value of the bits.
+     */
+    public void setRange(int from, int to, int value) {
+        if (from < 0 || to > length || from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+        long w = (value != 0) ? -1L : 0L;
+        // head up to the next byte boundary
+        int head = Math.min(to - from, (8 - (from & 7)) & 7);
+        put(from, w, head, false);
+        from += head;
+
+        int full = (to - from) >>> 3;
+        Arrays.fill(array, from >>> 3, (from >>> 3) + full, (byte) w);
+        from += full * 8;
+
+        put(from, w, to - from, false);
+    }
+
+    /**
+     * Shift all bits towards index 0: Bit i takes the value of bit i + k, the
+     * last k bits become 0.
+     *
+     * @param k The number of positions to shift.
+     */
+    public void shiftLeft(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative shift");
+        }
+        k = Math.min(k, length);
+        copyFrom(this, k, 0, length - k);
+        setRange(length - k, length, 0);
+    }
+
+    /**
+     * Shift all bits away from index 0: Bit i takes the value of bit i - k,
+     * the first k bits become 0.
+     *
+     * @param k The number of positions to shift.
+     */
+    public void shiftRight(int k) {
+        if (k < 0) {
+            throw new IllegalArgumentException("negative shift");
+        }
+        k = Math.min(k, length);
+        copyFrom(this, 0, k, length - k);
+        setRange(0, k, 0);
+    }
 
-            for (int i = 0; i < l; i++) {
-                setBit(i, other.bit(i));
+    private void transfer(Bits src, int srcOffset, int offset, int len, boolean xor) {
+        if (srcOffset < 0 || offset < 0 || len < 0
+                || (long) srcOffset + len > src.getLength()
+                || (long) offset + len > length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0) {
+            return;
+        }
+
+        long buf[];
+        if (src == this) {
+            // take a snapshot of the source range, as it might get overwritten
+            buf = new long[(int) ((len + 63L) / 64)];
+            getWords(srcOffset, len, buf, 0);
+            for (int k = 0, n = 0; n < len; k++, n += 64) {
+                put(offset + n, buf[k], Math.min(64, len - n), xor);
+            }
+            return;
+        }
+
+        // copy chunks of words to keep the temporary buffer small
+        buf = new long[(int) Math.min(1024, (len + 63L) / 64)];
+        for (int n = 0; n < len; n += 64 * buf.length) {
+            int cnt = Math.min(64 * buf.length, len - n);
+            src.getWords(srcOffset + n, cnt, buf, 0);
+            for (int k = 0, m = 0; m < cnt; k++, m += 64) {
+                put(offset + n + m, buf[k], Math.min(64, cnt - m), xor);
+            }
+        }
+    }
+
+    /**
+     * Store (or XOR) the n most significant bits of w at position pos.
+     */
+    private void put(int pos, long w, int n, boolean xor) {
+        if (n <= 0) {
+            return;
+        }
+        if (n == 64 && (pos & 7) == 0) {
+            int byteIndex = pos >>> 3;
+            for (int shift = 56; shift >= 0; shift -= 8, byteIndex++) {
+                byte b = (byte) (w >>> shift);
+                array[byteIndex] = (byte) (xor ? array[byteIndex] ^ b : b);
+            }
+            return;
+        }
+        while (n > 0) {
+            int byteIndex = pos >>> 3;
+            int used = pos & 7;
+            int k = Math.min(8 - used, n);
+            int shift = 8 - used - k;
+            int mask = ((1 << k) - 1) << shift;
+            int bits = ((int) (w >>> (64 - k)) << shift) & mask;
+            if (xor) {
+                array[byteIndex] ^= bits;
+            } else {
+                array[byteIndex] = (byte) ((array[byteIndex] & ~mask) | bits);
             }
+            w <<= k;
+            pos += k;
+            n -= k;
         }
     }
 }
@@ -6,6 +6,8 @@
  */
 package net.stamfest.randomtests.bits;
 
+import java.util.Arrays;
+
 /**
  * A bit sequence reflecting the permuted bits of another bit sequence.
  *
@@ -43,4 +45,42 @@ public class PermutedBits extends AbstractBaseBits {
     public int getLength() {
         return Math.min(base.getLength(), perm.getLength());
     }
+
+    /**
+     * Number of bits permuted at once by {@link #materialize()}.
+     */
+    private static final int BLOCK_SIZE = 1 << 18;
+
+    /**
+     * Compute the permuted sequence into a newly allocated byte array based
+     * bit sequence. The base sequence gets materialized first. The sequence is
+     * then processed in blocks: The mapped indices of a block are sorted, so
+     * that the bits of the block are read from the base sequence in ascending
+     * order instead of jumping around randomly.
+     *
+     * @return The permuted sequence as an ArrayBits object.
+     */
+    @Override
+    public ArrayBits materialize() {
+        int len = getLength();
+        Bits src = base.materialize();
+        byte array[] = new byte[(len + 7) / 8];
+
+        // mapped index in the upper, position within the block in the lower half
+        long buf[] = new long[Math.min(BLOCK_SIZE, len)];
+        for (int start = 0; start < len; start += buf.length) {
+            int n = Math.min(buf.length, len - start);
+            for (int k = 0; k < n; k++) {
+                buf[k] = ((long) perm.getMappedIndex(start + k) << 32) | k;
+            }
+            Arrays.sort(buf, 0, n);
+            for (int k = 0; k < n; k++) {
+                if (src.bit((int) (buf[k] >>> 32)) != 0) {
+                    int pos = start + (int) buf[k];
+                    array[pos >>> 3] |= 0x80 >>> (pos & 7);
+                }
+            }
+        }
+        return new ArrayBits(array, len, true);
+    }
 }
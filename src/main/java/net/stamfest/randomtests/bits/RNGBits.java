@@ -32,6 +32,34 @@ public class RNGBits extends ArrayBits {
         super();
         byte r[] = new byte[(length + 7) / 8];
         rng.nextBytes(r);
-        setArray(r, length);
+        setArray(r, length, true);
+    }
+
+    /**
+     * Constructs a bit sequence initialised from a random-number-generator,
+     * using a given buffer as backing storage (e.g. one obtained from a
+     * {@link BufferPool}). Only the first (length + 7) / 8 bytes of the buffer
+     * are filled, so the random number generator is used exactly the same way
+     * as by {@link #RNGBits(Random, int)}.
+     *
+     * @param rng    The random number generator to use.
+     * @param length The length of the bit sequence requested.
+     * @param buffer The buffer to use. It must hold at least (length + 7) / 8
+     *               bytes.
+     */
+    public RNGBits(Random rng, int length, byte[] buffer) {
+        super();
+        int n = (length + 7) / 8;
+        if (buffer.length < n) {
+            throw new IllegalArgumentException("buffer too small");
+        }
+        if (buffer.length == n) {
+            rng.nextBytes(buffer);
+        } else {
+            byte r[] = new byte[n];
+            rng.nextBytes(r);
+            System.arraycopy(r, 0, buffer, 0, n);
+        }
+        setArray(buffer, length);
     }
 }
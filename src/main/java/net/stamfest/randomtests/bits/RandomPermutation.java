@@ -20,7 +20,8 @@ public class RandomPermutation extends ExplicitPermutation {
     /**
      * Construct a random permutation initialized from a random number
      * generator. For long permutations, the algorithmic complexity of
-     * initialization is O(n^2) where n is the length.
+     * initialization is O(n^2) where n is the length. Consider to use a
+     * {@link FeistelPermutation} for long sequences.
      *
      * @param rng    The random number generator to use.
      * @param length The length of the permutation.
@@ -0,0 +1,175 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits;
+
+/**
+ * A rank/select index over a bit sequence. Once built (in a single pass over
+ * the sequence), it answers the number of one bits within any range of the
+ * sequence in constant time.
+ *
+ * The index is a two level directory of popcounts: For every super block of
+ * 65536 bits it keeps the number of one bits before the block, and for every
+ * block of 512 bits the number of one bits before the block relative to its
+ * super block. The remaining (at most 7) words are counted from the bit
+ * sequence itself using {@link Bits#word(int)}, so the index takes about 3% of
+ * the memory of the sequence.
+ *
+ * The index refers to the bit sequence it was built for. If that sequence gets
+ * changed afterwards, the results are undefined.
+ *
+ * @author Peter Stamfest
+ */
+public final class RankIndex {
+
+    private static final int SUPER_SHIFT = 16;
+    private static final int BLOCK_SHIFT = 9;
+    private static final int BLOCKS_PER_SUPER = 1 << (SUPER_SHIFT - BLOCK_SHIFT);
+
+    private final Bits bits;
+    private final int length;
+    private final int ones;
+    private final int superCounts[];
+    private final char blockCounts[];
+
+    /**
+     * Build the index for a bit sequence.
+     *
+     * @param bits The bit sequence to index.
+     */
+    public RankIndex(Bits bits) {
+        this.bits = bits;
+        this.length = bits.getLength();
+
+        superCounts = new int[(int) ((length + (1L << SUPER_SHIFT) - 1) >>> SUPER_SHIFT)];
+        blockCounts = new char[(int) ((length + (1L << BLOCK_SHIFT) - 1) >>> BLOCK_SHIFT)];
+
+        // one super block worth of words at a time
+        long words[] = new long[Math.min(1 << (SUPER_SHIFT - 6), (int) ((length + 63L) / 64))];
+        int total = 0;
+        for (int s = 0; s < superCounts.length; s++) {
+            int start = s << SUPER_SHIFT;
+            int len = Math.min(1 << SUPER_SHIFT, length - start);
+            int count = (len + 63) / 64;
+            bits.getWords(start, len, words, 0);
+
+            superCounts[s] = total;
+            int relative = 0;
+            int block = start >>> BLOCK_SHIFT;
+            for (int k = 0; k < count; k++) {
+                if ((k & 7) == 0) {
+                    blockCounts[block++] = (char) relative;
+                }
+                relative += Long.bitCount(words[k]);
+            }
+            total += relative;
+        }
+        ones = total;
+    }
+
+    /**
+     * @return The length of the indexed bit sequence.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return The total number of one bits in the indexed sequence.
+     */
+    public int getOnes() {
+        return ones;
+    }
+
+    /**
+     * Returns the number of one bits before a given position.
+     *
+     * @param i The position (0 &lt;= i &lt;= length).
+     * @return The number of one bits with an index less than i.
+     */
+    public int rank(int i) {
+        if (i < 0 || i > length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (i == length) {
+            return ones;
+        }
+        int r = superCounts[i >>> SUPER_SHIFT] + blockCounts[i >>> BLOCK_SHIFT];
+        int p = i & -(1 << BLOCK_SHIFT);
+        for (; p + 64 <= i; p += 64) {
+            r += Long.bitCount(bits.word(p));
+        }
+        if (p < i) {
+            r += Long.bitCount(bits.word(p) >>> (64 - (i - p)));
+        }
+        return r;
+    }
+
+    /**
+     * Count the number of one bits within a range of the sequence.
+     *
+     * @param from The index of the first bit to consider (inclusive).
+     * @param to   The index of the last bit to consider (exclusive).
+     * @return The number of one bits with an index from "from" to "to" - 1.
+     */
+    public int count(int from, int to) {
+        if (from > to) {
+            throw new IndexOutOfBoundsException();
+        }
+        return rank(to) - rank(from);
+    }
+
+    /**
+     * Find the position of the k-th one bit (counting from 0).
+     *
+     * @param k The number of one bits preceding the bit searched for.
+     * @return The index of the k-th one bit or -1 if the sequence has no more
+     *         than k one bits.
+     */
+    public int select(int k) {
+        if (k < 0) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (k >= ones) {
+            return -1;
+        }
+
+        // last super block starting with no more than k one bits
+        int lo = 0, hi = superCounts.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (superCounts[mid] <= k) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        int rem = k - superCounts[lo];
+
+        // last block within that super block starting with no more than rem one bits
+        hi = Math.min(blockCounts.length, (lo + 1) * BLOCKS_PER_SUPER) - 1;
+        lo = lo * BLOCKS_PER_SUPER;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (blockCounts[mid] <= rem) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        rem -= blockCounts[lo];
+
+        for (int p = lo << BLOCK_SHIFT;; p += 64) {
+            long w = bits.word(p);
+            int c = Long.bitCount(w);
+            if (rem < c) {
+                for (; rem > 0; rem--) {
+                    w &= ~Long.highestOneBit(w);
+                }
+                return p + Long.numberOfLeadingZeros(w);
+            }
+            rem -= c;
+        }
+    }
+}
@@ -37,4 +37,44 @@ public final class ReversedBits extends AbstractBaseBits {
     public int getLength() {
         return base.getLength();
     }
+
+    /**
+     * Returns 64 bits starting at position i. These are read as a single word
+     * from the corresponding position near the end of the base sequence and
+     * reversed using {@link Long#reverse(long)}.
+     */
+    @Override
+    public long word(int i) {
+        int len = base.getLength();
+        if (i < 0 || i >= len) {
+            throw new IndexOutOfBoundsException();
+        }
+        int left = len - i;
+        if (left >= 64) {
+            return Long.reverse(base.word(left - 64));
+        }
+        // fewer than 64 bits left: these are the first bits of the base
+        return Long.reverse(base.word(0)) << (64 - left);
+    }
+
+    /**
+     * Reversing a reversed sequence yields the original sequence.
+     *
+     * @return The base sequence.
+     */
+    @Override
+    public Bits reverse() {
+        return base;
+    }
+
+    /**
+     * Copy the reversed sequence into a newly allocated byte array based bit
+     * sequence, 64 bits at a time.
+     *
+     * @return The reversed sequence as an ArrayBits object.
+     */
+    @Override
+    public ArrayBits materialize() {
+        return new ArrayBits(this);
+    }
 }
@@ -43,7 +43,7 @@ public class StringBits extends ArrayBits {
             }
             i++;
         }
-        setArray(array, i);
+        setArray(array, i, true);
     }
     
     public static String toString(Bits bits) {
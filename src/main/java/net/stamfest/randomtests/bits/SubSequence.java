@@ -83,4 +83,90 @@ public class SubSequence extends AbstractBaseBits {
     public int getLength() {
         return length;
     }
+
+    /**
+     * Returns 64 bits starting at position i. Contiguous subsequences (step
+     * size 1) are served by a single (shifted) word from the base sequence.
+     * For step sizes 2, 4 and 8 the bits are gathered from step words of the
+     * base sequence using mask and shift sequences. Other step sizes fall
+     * back to bit by bit access.
+     */
+    @Override
+    public long word(int i) {
+        if (i < 0 || i >= length) {
+            throw new IndexOutOfBoundsException();
+        }
+        long w;
+        int start = offset + i * step;
+        switch (step) {
+            case 1:
+                w = base.word(start);
+                break;
+            case 2:
+            case 4:
+            case 8:
+                int baseLength = base.getLength();
+                int per = 64 / step;
+                w = 0;
+                for (int k = 0; k < step; k++) {
+                    long pos = start + 64L * k;
+                    if (pos >= baseLength) {
+                        break;
+                    }
+                    w |= gather(base.word((int) pos), step) << (64 - per * (k + 1));
+                }
+                break;
+            default:
+                return super.word(i);
+        }
+
+        int left = length - i;
+        if (left < 64) {
+            w &= -1L << (64 - left);
+        }
+        return w;
+    }
+
+    /**
+     * Extract every step-th bit (starting with the most significant bit) of a
+     * word and pack them into the lowest 64 / step bits of the result, keeping
+     * their order.
+     */
+    private static long gather(long w, int step) {
+        long x;
+        switch (step) {
+            case 2:
+                x = (w >>> 1) & 0x5555555555555555L;
+                x = (x | (x >>> 1)) & 0x3333333333333333L;
+                x = (x | (x >>> 2)) & 0x0F0F0F0F0F0F0F0FL;
+                x = (x | (x >>> 4)) & 0x00FF00FF00FF00FFL;
+                x = (x | (x >>> 8)) & 0x0000FFFF0000FFFFL;
+                return (x | (x >>> 16)) & 0x00000000FFFFFFFFL;
+            case 4:
+                x = (w >>> 3) & 0x1111111111111111L;
+                x = (x | (x >>> 3)) & 0x0303030303030303L;
+                x = (x | (x >>> 6)) & 0x000F000F000F000FL;
+                x = (x | (x >>> 12)) & 0x000000FF000000FFL;
+                return (x | (x >>> 24)) & 0x000000000000FFFFL;
+            case 8:
+                x = (w >>> 7) & 0x0101010101010101L;
+                x = (x | (x >>> 7)) & 0x0003000300030003L;
+                x = (x | (x >>> 14)) & 0x0000000F0000000FL;
+                return (x | (x >>> 28)) & 0x00000000000000FFL;
+            default:
+                throw new IllegalArgumentException("unsupported step " + step);
+        }
+    }
+
+    /**
+     * Copy the subsequence into a newly allocated byte array based bit
+     * sequence. Running tests on the copy avoids going through the base
+     * sequence (and possibly a longer chain of views) for every single bit.
+     *
+     * @return The subsequence as an ArrayBits object.
+     */
+    @Override
+    public ArrayBits materialize() {
+        return new ArrayBits(this);
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits;
+
+import java.util.Spliterator;
+import java.util.function.LongConsumer;
+
+/**
+ * A spliterator over the 64 bit words of a bit sequence, that is the values of
+ * {@link Bits#word(int)} for the indices 0, 64, 128, ... If the length of the
+ * sequence is not a multiple of 64, the unused low order bits of the last word
+ * are 0. This is the basis for {@link Bits#wordStream()}.
+ *
+ * @author Peter Stamfest
+ */
+public class WordSpliterator implements Spliterator.OfLong {
+
+    private final Bits bits;
+    private int index;
+    private final int fence;
+
+    /**
+     * Construct a spliterator over a range of words of a bit sequence.
+     *
+     * @param bits   The bit sequence.
+     * @param origin The number of the first word to report (inclusive).
+     * @param fence  The number of the last word to report (exclusive).
+     */
+    public WordSpliterator(Bits bits, int origin, int fence) {
+        if (origin < 0 || fence > (bits.getLength() + 63L) / 64 || origin > fence) {
+            throw new IndexOutOfBoundsException();
+        }
+        this.bits = bits;
+        this.index = origin;
+        this.fence = fence;
+    }
+
+    /**
+     * Construct a spliterator over all words of a bit sequence.
+     *
+     * @param bits The bit sequence.
+     */
+    public WordSpliterator(Bits bits) {
+        this(bits, 0, (int) ((bits.getLength() + 63L) / 64));
+    }
+
+    @Override
+    public boolean tryAdvance(LongConsumer action) {
+        if (index >= fence) {
+            return false;
+        }
+        action.accept(bits.word(index++ << 6));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(LongConsumer action) {
+        for (; index < fence; index++) {
+            action.accept(bits.word(index << 6));
+        }
+    }
+
+    @Override
+    public Spliterator.OfLong trySplit() {
+        int mid = (index + fence) >>> 1;
+        if (mid <= index) {
+            return null;
+        }
+        WordSpliterator prefix = new WordSpliterator(bits, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | SIZED | SUBSIZED | NONNULL;
+    }
+}
@@ -49,4 +49,57 @@ public final class XORBits extends AbstractBaseBits {
     public int getLength() {
         return base.getLength();
     }
+
+    @Override
+    public long word(int i) {
+        long w = base.word(i) ^ keyWord(i);
+        int left = base.getLength() - i;
+        if (left < 64) {
+            w &= -1L << (64 - left);
+        }
+        return w;
+    }
+
+    /**
+     * Returns 64 bits of the (repeated) second sequence starting at position
+     * i of the XORed sequence.
+     */
+    private long keyWord(int i) {
+        int pos = i % xorLen;
+        if (xorLen >= 64) {
+            long w = xor.word(pos);
+            if (pos + 64 > xorLen) {
+                // wrap around to the start of the second sequence
+                w |= xor.word(0) >>> (xorLen - pos);
+            }
+            return w;
+        }
+
+        /*
+         * Short second sequence: Get one period starting at pos, then double
+         * the number of valid bits until the word is filled.
+         */
+        long w = xor.word(pos);
+        if (pos > 0) {
+            w |= xor.word(0) >>> (xorLen - pos);
+        }
+        w &= -1L << (64 - xorLen);
+        for (int filled = xorLen; filled < 64; filled *= 2) {
+            w |= w >>> filled;
+        }
+        return w;
+    }
+
+    /**
+     * Compute the XORed sequence into a newly allocated byte array based bit
+     * sequence. The computation is done 64 bits at a time, so this is much
+     * faster than accessing the XORed sequence bit by bit if many bits are
+     * accessed.
+     *
+     * @return The XORed sequence as an ArrayBits object.
+     */
+    @Override
+    public ArrayBits materialize() {
+        return new ArrayBits(this);
+    }
 }
@@ -8,6 +8,7 @@
 package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
+import net.stamfest.randomtests.bits.BitCursor;
 import net.stamfest.randomtests.bits.Bits;
 import org.apache.commons.math3.special.Gamma;
 
@@ -73,6 +74,7 @@ public class ApproximateEntropy extends AbstractNistTest {
         seqLength = b.getLength();
         r = 0;
 
+        BitCursor cursor = new BitCursor(b);
         for (blockSize = m; blockSize <= m + 1; blockSize++) {
             if (blockSize == 0) {
                 ApEn[0] = 0.00;
@@ -90,7 +92,7 @@ public class ApproximateEntropy extends AbstractNistTest {
                     k = 1;
                     for (j = 0; j < blockSize; j++) {
                         k <<= 1;
-                        if ((int) b.bit((i + j) % seqLength) == 1) {
+                        if (cursor.bitAt((i + j) % seqLength) == 1) {
                             k++;
                         }
                     }
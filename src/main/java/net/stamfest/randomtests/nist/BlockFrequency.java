@@ -8,7 +8,10 @@
 package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
+import net.stamfest.randomtests.bits.ArrayBits;
 import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.LongBits;
+import net.stamfest.randomtests.bits.RankIndex;
 import org.apache.commons.math3.special.Gamma;
 
 /**
@@ -21,17 +24,18 @@ import org.apache.commons.math3.special.Gamma;
  *
  * @author Peter Stamfest
  */
-public class BlockFrequency extends AbstractNistTest {
+public class BlockFrequency extends AbstractNistTest implements LongNistTest {
     public static class BlockFrequencyResult extends Chi2Result {
         public BlockFrequencyResult(double p_value, double chi2, int degrees) {
             super(p_value, chi2, degrees, null);
         }
         private int blockLen;
         private int discarded;
-        private int blockCount;
+        private long blockCount;
 
         public int getBlockCount() {
-            return blockCount;
+            // runTest rejects sequences with more blocks
+            return (int) blockCount;
         }
 
         public int getBlockLen() {
@@ -56,34 +60,62 @@ public class BlockFrequency extends AbstractNistTest {
 
     @Override
     public Result[] runTest(Bits b) {
-        double chi_squared;
-        int blockCount;
-
+        if (!(b instanceof ArrayBits)) {
+            // building an index is not worth it, count the ones word by word
+            return runTest(LongBits.wrap(b));
+        }
+        // count the ones per block using the (possibly cached) rank index
+        RankIndex index = b.getRankIndex();
         int n = b.getLength();
-        int discarded = n % blockLen;
+        int blockCount = n / blockLen;
+        double sum = 0.0;
+
+        for (int i = 0; i < blockCount; i++) {
+            int offset = i * blockLen;
+            int blockSum = index.count(offset, offset + blockLen);
+            double pi = (double) blockSum / (double) blockLen;
+            double v = pi - 0.5;
+            sum += v * v;
+        }
+        return result(n, blockCount, sum);
+    }
 
-        int i, j, blockSum;
+    @Override
+    public Result[] runTest(LongBits b) {
+        long blockCount;
+
+        long n = b.getLength();
+
+        long i;
+        long blockSum;
         double sum, pi, v;
 
         blockCount = n / blockLen;
+        if (blockCount > Integer.MAX_VALUE) {
+            // the number of degrees of freedom of the result is an int
+            throw new IllegalArgumentException(String.format("too many blocks (%d), use a block length of at least %d",
+                                                             blockCount, n / Integer.MAX_VALUE + 1));
+        }
         /* # OF SUBSTRING BLOCKS      */
         sum = 0.0;
 
         for (i = 0; i < blockCount; i++) {
-            blockSum = 0;
-            int offset = i * blockLen;
-            for (j = 0; j < blockLen; j++) {
-                blockSum += b.bit(offset + j);
-            }
+            long offset = i * blockLen;
+            blockSum = b.bitCount(offset, offset + blockLen);
             pi = (double) blockSum / (double) blockLen;
             v = pi - 0.5;
             sum += v * v;
         }
-        chi_squared = 4.0 * blockLen * sum;
+        return result(n, blockCount, sum);
+    }
+
+    private Result[] result(long n, long blockCount, double sum) {
+        int discarded = (int) (n % blockLen);
+        double chi_squared = 4.0 * blockLen * sum;
         //p_value = cephes_igamc(blockCount/2.0, chi_squared/2.0);
         
         BlockFrequencyResult r = new BlockFrequencyResult(Gamma.regularizedGammaQ(blockCount / 2.0, chi_squared / 2.0),
-                                                          chi_squared, blockCount);
+                                                          chi_squared, (int) blockCount);
 
         r.discarded = discarded;
         r.blockLen = blockLen;
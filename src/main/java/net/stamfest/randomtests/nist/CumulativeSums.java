@@ -8,7 +8,9 @@
 package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
+import java.util.concurrent.ConcurrentHashMap;
 import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.LongBits;
 import org.apache.commons.math3.distribution.NormalDistribution;
 
 /**
@@ -24,80 +26,193 @@ import org.apache.commons.math3.distribution.NormalDistribution;
  *
  * @author NIST / ported by Peter Stamfest
  */
-public class CumulativeSums extends AbstractNistTest {
+public class CumulativeSums extends AbstractNistTest implements LongNistTest {
     private final static NormalDistribution nd = new NormalDistribution();
 
     public static class CumulativeSumsResult extends Result {
-        private int partialSum;
+        private long partialSum;
 
-        public CumulativeSumsResult(double p_value, int partialSum, String description) {
+        public CumulativeSumsResult(double p_value, long partialSum, String description) {
             super(p_value, description);
             this.partialSum = partialSum;
         }
 
+        /**
+         * @return The maximum partial sum.
+         * @throws ArithmeticException if the value does not fit into an int (only
+         *                             possible for long indexed sequences).
+         */
         public int getPartialSum() {
+            return Math.toIntExact(partialSum);
+        }
+
+        public long getLongPartialSum() {
             return partialSum;
         }
     }
 
     @Override
     public Result[] runTest(Bits b) {
-        int n;
-        int z;
-        int zrev;
+        return runTest(LongBits.wrap(b));
+    }
+
+    /*
+     * Random walk tables per byte (bit 7 first): The net step, and the
+     * maximum and minimum of the walk after 1 to 8 steps.
+     */
+    private static final byte NET[] = new byte[256];
+    private static final byte MAX_PREFIX[] = new byte[256];
+    private static final byte MIN_PREFIX[] = new byte[256];
+
+    static {
+        for (int v = 0; v < 256; v++) {
+            int S = 0, max = Integer.MIN_VALUE, min = Integer.MAX_VALUE;
+            for (int bit = 7; bit >= 0; bit--) {
+                S += ((v >>> bit) & 1) != 0 ? 1 : -1;
+                max = Math.max(max, S);
+                min = Math.min(min, S);
+            }
+            NET[v] = (byte) S;
+            MAX_PREFIX[v] = (byte) max;
+            MIN_PREFIX[v] = (byte) min;
+        }
+    }
+
+    /**
+     * Upper limit for the number of memoised p-values.
+     */
+    private static final int MEMO_LIMIT = 4096;
+
+    private static final class Memo {
+        final long n;
+        final ConcurrentHashMap<Long, Double> pValues = new ConcurrentHashMap<>();
+
+        Memo(long n) {
+            this.n = n;
+        }
+    }
+
+    private volatile Memo memo;
+
+    @Override
+    public Result[] runTest(LongBits b) {
+        long n;
+        long z;
+        long zrev;
         n = b.getLength();
-        double sqrtN = Math.sqrt(n);
-        int S, sup, inf, k;
-        double sum1, sum2;
+        long S, sup, inf, k;
 
-        z = zrev = 0;
+        /* walk the sequence a byte at a time */
         S = 0;
         sup = 0;
         inf = 0;
-        for (k = 0; k < n; k++) {
-            if (b.bit(k) != 0) {
-                S++;
-            } else {
-                S--;
+        for (k = 0; k + 64 <= n; k += 64) {
+            long w = b.word(k);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                int v = (int) (w >>> shift) & 0xff;
+                sup = Math.max(sup, S + MAX_PREFIX[v]);
+                inf = Math.min(inf, S + MIN_PREFIX[v]);
+                S += NET[v];
             }
-            if (S > sup) {
-                sup++;
+        }
+        if (k < n) {
+            long w = b.word(k);
+            int left = (int) (n - k);
+            for (; left >= 8; left -= 8, w <<= 8) {
+                int v = (int) (w >>> 56);
+                sup = Math.max(sup, S + MAX_PREFIX[v]);
+                inf = Math.min(inf, S + MIN_PREFIX[v]);
+                S += NET[v];
             }
-            if (S < inf) {
-                inf--;
+            for (; left > 0; left--, w <<= 1) {
+                S += (w < 0) ? 1 : -1;
+                sup = Math.max(sup, S);
+                inf = Math.min(inf, S);
             }
-            z = (sup > -inf) ? sup : -inf;
-            zrev = (sup - S > S - inf) ? sup - S : S - inf;
         }
+        z = (sup > -inf) ? sup : -inf;
+        zrev = (sup - S > S - inf) ? sup - S : S - inf;
 
-        // forward
-        sum1 = 0.0;
-        for (k = (-n / z + 1) / 4; k <= (n / z - 1) / 4; k++) {
-            sum1 += nd.cumulativeProbability(((4 * k + 1) * z) / sqrtN);
-            sum1 -= nd.cumulativeProbability(((4 * k - 1) * z) / sqrtN);
+        double p_value0 = pValue(n, z);     // forward
+        double p_value1 = pValue(n, zrev);  // backwards
+        return new Result[] { new CumulativeSumsResult(p_value0, z, "forward"), 
+                              new CumulativeSumsResult(p_value1, zrev, "backward") };
+    }
+
+    /**
+     * Returns the p-value for a maximum excursion z of a walk of length n.
+     * Results are memoised, as z only takes few distinct values for a given
+     * sequence length.
+     */
+    private double pValue(long n, long z) {
+        Memo m = memo;
+        if (m == null || m.n != n) {
+            m = new Memo(n);
+            memo = m;
         }
-        sum2 = 0.0;
-        for (k = (-n / z - 3) / 4; k <= (n / z - 1) / 4; k++) {
-            sum2 += nd.cumulativeProbability(((4 * k + 3) * z) / sqrtN);
-            sum2 -= nd.cumulativeProbability(((4 * k + 1) * z) / sqrtN);
+        Double p = m.pValues.get(z);
+        if (p == null) {
+            p = computePValue(n, z);
+            if (m.pValues.size() < MEMO_LIMIT) {
+                m.pValues.put(z, p);
+            }
         }
+        return p;
+    }
 
-        double p_value0 = 1.0 - sum1 + sum2;
+    /*
+     * The summation loops skip terms that cannot change the sums: Below -40
+     * the normal distribution yields exactly 0. Once both terms of a pair
+     * are exactly 1 (and the sum is within [-1, 1]), the sum got rounded to a
+     * multiple of the ulp of 1 and all further pairs leave it unchanged.
+     */
+    private static double computePValue(long n, long z) {
+        double sqrtN = Math.sqrt(n);
+        double sum1, sum2;
+        long k, last;
 
-        // backwards
         sum1 = 0.0;
-        for (k = (-n / zrev + 1) / 4; k <= (n / zrev - 1) / 4; k++) {
-            sum1 += nd.cumulativeProbability(((4 * k + 1) * zrev) / sqrtN);
-            sum1 -= nd.cumulativeProbability(((4 * k - 1) * zrev) / sqrtN);
+        last = (n / z - 1) / 4;
+        for (k = firstTerm((-n / z + 1) / 4, 1, z, sqrtN); k <= last; k++) {
+            double hi = nd.cumulativeProbability(((4 * k + 1) * z) / sqrtN);
+            double lo = nd.cumulativeProbability(((4 * k - 1) * z) / sqrtN);
+            sum1 += hi;
+            sum1 -= lo;
+            if (lo == 1.0 && Math.abs(sum1) <= 1.0) {
+                break;
+            }
         }
         sum2 = 0.0;
-        for (k = (-n / zrev - 3) / 4; k <= (n / zrev - 1) / 4; k++) {
-            sum2 += nd.cumulativeProbability(((4 * k + 3) * zrev) / sqrtN);
-            sum2 -= nd.cumulativeProbability(((4 * k + 1) * zrev) / sqrtN);
+        for (k = firstTerm((-n / z - 3) / 4, 3, z, sqrtN); k <= last; k++) {
+            double hi = nd.cumulativeProbability(((4 * k + 3) * z) / sqrtN);
+            double lo = nd.cumulativeProbability(((4 * k + 1) * z) / sqrtN);
+            sum2 += hi;
+            sum2 -= lo;
+            if (lo == 1.0 && Math.abs(sum2) <= 1.0) {
+                break;
+            }
         }
-        double p_value1 = 1.0 - sum1 + sum2;
-        return new Result[] { new CumulativeSumsResult(p_value0, z, "forward"), 
-                              new CumulativeSumsResult(p_value1, zrev, "backward") };
+
+        return 1.0 - sum1 + sum2;
+    }
+
+    /**
+     * Returns the first k (not less than from) for which the larger argument
+     * (4 * k + c) * z / sqrtN of a summation term is not below -40.
+     */
+    private static long firstTerm(long from, int c, long z, double sqrtN) {
+        long k = (long) Math.floor((-40.0 * sqrtN / z - c) / 4) - 1;
+        if (k <= from) {
+            return from;
+        }
+        while (((4 * k + c) * z) / sqrtN < -40) {
+            k++;
+        }
+        // step back in case the estimate was too large
+        while (k > from && ((4 * (k - 1) + c) * z) / sqrtN >= -40) {
+            k--;
+        }
+        return k;
     }
 
     @Override
@@ -112,7 +227,7 @@ public class CumulativeSums extends AbstractNistTest {
         CumulativeSumsResult r = (CumulativeSumsResult) results[0];
         out.println("COMPUTATIONAL INFORMATION:");
         out.println("-------------------------------------------");
-        out.printf("(a) The maximum partial sum = %d\n", r.getPartialSum());
+        out.printf("(a) The maximum partial sum = %d\n", r.getLongPartialSum());
         out.println("-------------------------------------------");
         if (r.getPValue() < 0 || r.getPValue() > 1) {
             out.println("WARNING:  P_VALUE IS OUT OF RANGE");
@@ -128,7 +243,7 @@ public class CumulativeSums extends AbstractNistTest {
         out.println("-------------------------------------------");
         out.println("COMPUTATIONAL INFORMATION:");
         out.println("-------------------------------------------");
-        out.printf("(a) The maximum partial sum = %d\n", r.getPartialSum());
+        out.printf("(a) The maximum partial sum = %d\n", r.getLongPartialSum());
         out.println("-------------------------------------------");
         if (r.getPValue() < 0 || r.getPValue() > 1) {
             out.println("WARNING:  P_VALUE IS OUT OF RANGE");
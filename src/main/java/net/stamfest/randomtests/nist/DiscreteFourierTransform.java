@@ -8,9 +8,17 @@
 package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import net.stamfest.randomtests.bits.ArrayBits;
+import net.stamfest.randomtests.bits.BitCursor;
 import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.LongBits;
 import org.apache.commons.math3.special.Erf;
 import org.jtransforms.fft.DoubleFFT_1D;
+import org.jtransforms.fft.FloatFFT_1D;
 
 /**
  * The focus of this test is the peak heights in the Discrete Fourier Transform
@@ -50,7 +58,88 @@ public class DiscreteFourierTransform extends AbstractNistTest {
         }
         
     }
-    
+
+    /**
+     * Maximum number of different sequence lengths FFT plans are cached for.
+     */
+    private static final int MAX_PLANS = 4;
+
+    /*
+     * FFT plans (twiddle factors etc.) only depend on the sequence length and
+     * may be shared between threads. Plans and scratch buffers are only softly
+     * referenced, so they do not keep the memory for long sequences once it
+     * is needed elsewhere.
+     */
+    private static final ConcurrentHashMap<Integer, SoftReference<DoubleFFT_1D>> doublePlans = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<Integer, SoftReference<FloatFFT_1D>> floatPlans = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<SoftReference<double[]>> doubleScratch = new ThreadLocal<>();
+    private static final ThreadLocal<SoftReference<float[]>> floatScratch = new ThreadLocal<>();
+
+    private static <T> T getPlan(ConcurrentHashMap<Integer, SoftReference<T>> plans, int n, IntFunction<T> factory) {
+        SoftReference<T> ref = plans.get(n);
+        T fft = (ref != null) ? ref.get() : null;
+        if (fft == null) {
+            if (plans.size() >= MAX_PLANS) {
+                plans.clear();
+            }
+            fft = factory.apply(n);
+            plans.put(n, new SoftReference<>(fft));
+        }
+        return fft;
+    }
+
+    /**
+     * Returns the scratch buffer of the current thread for sequences of
+     * length n. The content of the buffer is undefined.
+     */
+    private static <T> T getScratch(ThreadLocal<SoftReference<T>> scratch, int n,
+                                    IntFunction<T> factory, ToIntFunction<T> length) {
+        SoftReference<T> ref = scratch.get();
+        T buf = (ref != null) ? ref.get() : null;
+        if (buf == null || length.applyAsInt(buf) != n) {
+            // allow the old buffer to be collected first
+            buf = null;
+            if (ref != null) {
+                ref.clear();
+            }
+            buf = factory.apply(n);
+            scratch.set(new SoftReference<>(buf));
+        }
+        return buf;
+    }
+
+    private final int precisionBits;
+
+    /**
+     * Constructs a test computing the transform with double precision.
+     */
+    public DiscreteFourierTransform() {
+        this(64);
+    }
+
+    /**
+     * Constructs a test computing the transform with a given precision.
+     *
+     * With a precision of 32 bits, the transform is computed on a float array,
+     * which takes half the memory of the double precision transform (4 bytes
+     * per bit of the sequence). Peaks close enough to the threshold to be
+     * affected by the lower precision are recomputed directly in double
+     * precision, so the number of peaks below the threshold is the same as for
+     * the double precision transform. If there are too many of them (which
+     * does not happen for random sequences), the double precision transform
+     * is used instead.
+     *
+     * @param precisionBits The precision of the transform, either 32 (float)
+     *                      or 64 (double).
+     */
+    public DiscreteFourierTransform(int precisionBits) {
+        if (precisionBits != 32 && precisionBits != 64) {
+            throw new IllegalArgumentException("precision must be 32 or 64 bits");
+        }
+        this.precisionBits = precisionBits;
+    }
+
     @Override
     public Result[] runTest(Bits b) {
         int n = b.getLength();
@@ -60,38 +149,19 @@ public class DiscreteFourierTransform extends AbstractNistTest {
         double d;
 
         double upperBound;
-        double X[] = new double[n];
-        double m[] = new double[n / 2 + 1];
+        int count;
 
-        int i, count, ifac[] = new int[15];
+        /* CONFIDENCE INTERVAL */
+        upperBound = Math.sqrt(2.995732274 * n);
 
-        for (i = 0; i < n; i++) {
-            X[i] = 2 * (int) b.bit(i) - 1;  // turn 0 and 1 into -1 and +1
+        count = -1;
+        if (precisionBits == 32) {
+            count = countFloat(b, upperBound, maxAmbiguous(n, upperBound));
         }
-
-        DoubleFFT_1D fft = new DoubleFFT_1D(n);
-        fft.realForward(X);
-//
-//        for (int ii = 0; ii < n; ii++) {
-//            System.out.printf("X[%d]   %g\n", ii, X[ii]);
-//        }
-
-        m[0] = Math.sqrt(X[0] * X[0]);
-        /* COMPUTE MAGNITUDE */
-        m[n / 2] = Math.sqrt(X[1] * X[1]);
-
-        for (i = 0; i < n / 2 - 1; i++) {
-            m[i + 1] = Math.hypot(X[2 * i + 2], X[2 * i + 3]);
+        if (count < 0) {
+            count = countDouble(b, upperBound);
         }
 
-        count = 0;
-        /* CONFIDENCE INTERVAL */
-        upperBound = Math.sqrt(2.995732274 * n);
-        for (i = 0; i < n / 2; i++) {
-            if (m[i] < upperBound) {
-                count++;
-            }
-        }
         percentile = (double) count / (n / 2) * 100;
         N_l = (double) count;
         /* number of peaks less than h = sqrt(3*n) */
@@ -108,6 +178,167 @@ public class DiscreteFourierTransform extends AbstractNistTest {
         return new Result[] { r };
     }
 
+    /**
+     * Count the peaks below the threshold using a double precision transform.
+     * Magnitudes are computed on the fly from the transformed array.
+     */
+    private static int countDouble(Bits b, double upperBound) {
+        int n = b.getLength();
+        double X[] = getScratch(doubleScratch, n, double[]::new, a -> a.length);
+        int i, count;
+
+        BitCursor cursor = new BitCursor(b);
+        for (i = 0; i < n; i++) {
+            X[i] = 2 * cursor.bitAt(i) - 1;  // turn 0 and 1 into -1 and +1
+        }
+
+        DoubleFFT_1D fft = getPlan(doublePlans, n, DoubleFFT_1D::new);
+        fft.realForward(X);
+
+        /* COMPUTE MAGNITUDE */
+        count = 0;
+        for (i = 0; i < n / 2; i++) {
+            double m = (i == 0) ? Math.sqrt(X[0] * X[0]) : Math.hypot(X[2 * i], X[2 * i + 1]);
+            if (m < upperBound) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Width of the band around the threshold magnitudes of the single
+     * precision transform are recomputed in. The error of the float transform
+     * is well below ulp(1f) * sqrt(n) * log2(n) per coefficient, leave a
+     * safety margin of a factor of 2.
+     */
+    private static double ambiguityBand(int n) {
+        double log2n = Math.max(1, 32 - Integer.numberOfLeadingZeros(n));
+        return 2 * Math.ulp(1f) * Math.sqrt(n) * log2n;
+    }
+
+    /**
+     * Maximum number of magnitudes recomputed before falling back to the
+     * double precision transform.
+     *
+     * Recomputing a magnitude costs about n/8 complex multiplications, so
+     * for shorter sequences the limit is where that gets more expensive than
+     * the double precision transform. The expected number of magnitudes
+     * within the band grows like n * log2(n) though: The density of
+     * magnitudes at the threshold h is 2h/n * 0.05, so about
+     * 0.1 * h * band of the n/2 magnitudes are within the band. For long
+     * sequences the limit is twice that, which keeps random sequences from
+     * falling back, trading time for the memory of the double precision
+     * transform.
+     */
+    private static int maxAmbiguous(int n, double upperBound) {
+        double log2n = Math.max(1, 32 - Integer.numberOfLeadingZeros(n));
+        double expected = 0.1 * upperBound * ambiguityBand(n);
+        return (int) Math.max(32 * log2n, 2 * expected);
+    }
+
+    /**
+     * Count the peaks below the threshold using a single precision transform.
+     * Magnitudes within the error bound of the float transform around the
+     * threshold are recomputed in double precision.
+     *
+     * @return The number of peaks or -1 if more than maxAmbiguous magnitudes
+     *         are close to the threshold. The scratch buffer is released in
+     *         that case, so it is not held during the double precision
+     *         transform.
+     */
+    private static int countFloat(Bits b, double upperBound, int maxAmbiguous) {
+        int n = b.getLength();
+        float X[] = getScratch(floatScratch, n, float[]::new, a -> a.length);
+        int i, count;
+
+        BitCursor cursor = new BitCursor(b);
+        for (i = 0; i < n; i++) {
+            X[i] = 2 * cursor.bitAt(i) - 1;
+        }
+
+        FloatFFT_1D fft = getPlan(floatPlans, n, FloatFFT_1D::new);
+        fft.realForward(X);
+
+        double band = ambiguityBand(n);
+        int ambiguous[] = new int[maxAmbiguous];
+        int a = 0;
+
+        count = 0;
+        for (i = 0; i < n / 2; i++) {
+            double m = (i == 0) ? Math.abs(X[0]) : Math.hypot(X[2 * i], X[2 * i + 1]);
+            if (m < upperBound - band) {
+                count++;
+            } else if (m <= upperBound + band) {
+                if (a == maxAmbiguous) {
+                    floatScratch.remove();
+                    return -1;
+                }
+                ambiguous[a++] = i;
+            }
+        }
+
+        for (int k = 0; k < a; k++) {
+            if (magnitude(b, ambiguous[k]) < upperBound) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Directly computes the magnitude of a single Fourier coefficient of the
+     * sequence (turned into -1 and +1) in double precision, without
+     * transforming the whole sequence.
+     *
+     * For k != 0, the coefficient is twice the sum of w^(j*k) over all
+     * positions j of one bits, as the sum over all positions is 0. The sum is
+     * taken a byte at a time from a table of the partial sums of all 256 byte
+     * values. The phase of every byte is advanced by multiplication and
+     * recomputed exactly every 256 bytes to limit the rounding error.
+     *
+     * @param b The bit sequence.
+     * @param k The index of the coefficient (0 &lt;= k &lt; n).
+     * @return The magnitude of coefficient k.
+     */
+    public static double magnitude(Bits b, int k) {
+        int n = b.getLength();
+        if (k == 0) {
+            long ones = (b instanceof ArrayBits) ? b.getRankIndex().getOnes() : LongBits.wrap(b).bitCount(0, n);
+            return Math.abs(2.0 * ones - n);
+        }
+
+        double tre[] = new double[256], tim[] = new double[256];
+        for (int v = 1; v < 256; v++) {
+            int prev = v & (v - 1);
+            int t = 7 - Integer.numberOfTrailingZeros(v);
+            double phi = -2 * Math.PI * (((long) t * k) % n) / n;
+            tre[v] = tre[prev] + Math.cos(phi);
+            tim[v] = tim[prev] + Math.sin(phi);
+        }
+
+        double step = -2 * Math.PI * ((8L * k) % n) / n;
+        double sre = Math.cos(step), sim = Math.sin(step);
+        double re = 0, im = 0, pre = 1, pim = 0;
+        for (int q = 0, p = 0; p < n; p += 64) {
+            long w = b.word(p);
+            for (int shift = 56; shift >= 0; shift -= 8, q++) {
+                if ((q & 255) == 0) {
+                    double phi = -2 * Math.PI * ((8L * q % n) * k % n) / n;
+                    pre = Math.cos(phi);
+                    pim = Math.sin(phi);
+                }
+                int v = (int) (w >>> shift) & 0xff;
+                re += pre * tre[v] - pim * tim[v];
+                im += pre * tim[v] + pim * tre[v];
+                double t = pre * sre - pim * sim;
+                pim = pre * sim + pim * sre;
+                pre = t;
+            }
+        }
+        return 2 * Math.hypot(re, im);
+    }
+
     @Override
     public void report(PrintWriter out, Result[] results) {
         out.println("FFT TEST");
@@ -135,4 +366,12 @@ public class DiscreteFourierTransform extends AbstractNistTest {
         return 1000;
     }
 
+    @Override
+    public String getDescription() {
+        if (precisionBits == 64) {
+            return super.getDescription();
+        }
+        return super.getDescription() + String.format("(%d)", precisionBits);
+    }
+
 }
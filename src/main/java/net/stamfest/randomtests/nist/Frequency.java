@@ -8,7 +8,9 @@
 package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
+import net.stamfest.randomtests.bits.ArrayBits;
 import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.LongBits;
 import org.apache.commons.math3.special.Erf;
 
 /**
@@ -21,22 +23,40 @@ import org.apache.commons.math3.special.Erf;
  *
  * @author NIST / ported by Peter Stamfest
  */
-public class Frequency extends AbstractNistTest {
+public class Frequency extends AbstractNistTest implements LongNistTest {
     public static class FrequencyResult extends Result {
-        private int sum;
-        private int len;
+        private long sum;
+        private long len;
         
-        public FrequencyResult(double p_value, int len, int sum) {
+        public FrequencyResult(double p_value, long len, long sum) {
             super(p_value, null);
             this.len = len;
             this.sum = sum;
         }
 
+        /**
+         * @return The nth partial sum.
+         * @throws ArithmeticException if the value does not fit into an int (only
+         *                             possible for long indexed sequences).
+         */
         public int getSum() {
+            return Math.toIntExact(sum);
+        }
+
+        public long getLongSum() {
             return sum;
         }
 
+        /**
+         * @return The sequence length.
+         * @throws ArithmeticException if the value does not fit into an int (only
+         *                             possible for long indexed sequences).
+         */
         public int getLen() {
+            return Math.toIntExact(len);
+        }
+
+        public long getLongLen() {
             return len;
         }
         
@@ -45,15 +65,28 @@ public class Frequency extends AbstractNistTest {
 
     @Override
     public Result[] runTest(Bits b) {
-        int len = b.getLength();
-        int sum = 0;
-
-        for (int i = 0; i < len; i++) {
-            sum += 2 * b.bit(i) - 1;
-            /* bits become -1 and +1 instead of 0 and 1 
-            this means the expected mean value of a purely random sequence of -1,+1 is zero */
+        if (!(b instanceof ArrayBits)) {
+            // building an index is not worth it, count the ones word by word
+            return runTest(LongBits.wrap(b));
         }
+        // the number of ones is readily available from the (possibly cached) rank index
+        long len = b.getLength();
+        long ones = b.getRankIndex().getOnes();
+        return result(len, 2 * ones - len);
+    }
+
+    @Override
+    public Result[] runTest(LongBits b) {
+        long len = b.getLength();
+
+        /* bits become -1 and +1 instead of 0 and 1 
+        this means the expected mean value of a purely random sequence of -1,+1 is zero */
+        long sum = 2 * b.bitCount(0, len) - len;
+
+        return result(len, sum);
+    }
 
+    private Result[] result(long len, long sum) {
         double s_obs = Math.abs(sum) / Math.sqrt(len);
         double f = s_obs / sqrt2;
         // double p_value = Math.erfc(f);
@@ -77,8 +110,8 @@ public class Frequency extends AbstractNistTest {
         
         out.println("COMPUTATIONAL INFORMATION:");
         out.println("---------------------------------------------");
-        out.printf("(a) The nth partial sum = %d\n", r.getSum());
-        out.printf("(b) S_n/n               = %f\n", (double) r.getSum() / r.getLen());
+        out.printf("(a) The nth partial sum = %d\n", r.getLongSum());
+        out.printf("(b) S_n/n               = %f\n", (double) r.getLongSum() / r.getLongLen());
         out.println("--------------------------------------------");
 
         out.printf("%s\t\tp_value = %f\n\n", 
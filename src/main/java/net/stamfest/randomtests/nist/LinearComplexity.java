@@ -9,6 +9,7 @@ package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
 import java.util.Arrays;
+import net.stamfest.randomtests.bits.BitCursor;
 import net.stamfest.randomtests.bits.Bits;
 import net.stamfest.randomtests.bits.MutableArrayBits;
 import org.apache.commons.math3.special.Gamma;
@@ -77,10 +78,10 @@ public class LinearComplexity extends AbstractNistTest {
         int K = 6;
         int N;
         int length = b.getLength();
-        int i, ii, j, d, L, m, N_, parity, sign;
+        int i, ii, d, L, m, N_, parity, sign;
         double T_, mean;
         double pi[] = new double[]{ 0.01047, 0.03125, 0.12500, 0.50000, 0.25000, 0.06250, 0.020833 };
-        MutableArrayBits T, P, B_, C;
+        MutableArrayBits T, B_, C;
 
         K = 6;
 
@@ -96,13 +97,12 @@ public class LinearComplexity extends AbstractNistTest {
 
         C = new MutableArrayBits(M);
         T = new MutableArrayBits(M);
-        P = new MutableArrayBits(M);
         B_ = new MutableArrayBits(M);
 
+        BitCursor cursor = new BitCursor(b);
         for (ii = 0; ii < N; ii++) {
             C.fill((byte) 0);
             T.fill((byte) 0);
-            P.fill((byte) 0);
             B_.fill((byte) 0);
             L = 0;
             m = -1;
@@ -113,23 +113,16 @@ public class LinearComplexity extends AbstractNistTest {
             /* DETERMINE LINEAR COMPLEXITY */
             N_ = 0;
             while (N_ < M) {
-                d = (int) b.bit(ii * M + N_);
+                d = cursor.bitAt(ii * M + N_);
                 for (i = 1; i <= L; i++) {
-                    d += C.bit(i) * b.bit(ii * M + N_ - i);
+                    d += C.bit(i) * cursor.bitAt(ii * M + N_ - i);
                 }
                 d = d % 2;
                 if (d == 1) {
-                    P.fill((byte) 0);
                     T.assignFrom(C);
 
-                    for (j = 0; j < M; j++) {
-                        if (B_.bit(j) != 0) {
-                            P.setBit(j + N_ - m, 1);
-                        }
-                    }
-                    for (i = 0; i < M; i++) {
-                        C.setBit(i, (C.bit(i) + P.bit(i)) % 2);
-                    }
+                    /* C(D) = C(D) + B(D) * D^(N - m) */
+                    C.xorFrom(B_, 0, N_ - m, M - (N_ - m));
                     if (L <= N_ / 2) {
                         L = N_ + 1 - L;
                         m = N_;
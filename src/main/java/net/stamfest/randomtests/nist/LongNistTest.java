@@ -0,0 +1,33 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.nist;
+
+import net.stamfest.randomtests.bits.LongBits;
+
+/**
+ * A test that is able to process sequences of arbitrary length, including
+ * sequences with more than Integer.MAX_VALUE bits. This allows to assess a
+ * multi gigabit capture in a single pass instead of chopping it into
+ * artificial subsequences.
+ *
+ * Implementations are expected to produce the same results for
+ * {@link #runTest(net.stamfest.randomtests.bits.Bits) runTest(Bits)} and for
+ * runTest(LongBits) if both are passed the same bits.
+ *
+ * @author Peter Stamfest
+ */
+public interface LongNistTest extends NistTest {
+
+    /**
+     * Run the test for the given long indexed bit sequence. See
+     * {@link NistTest#runTest(net.stamfest.randomtests.bits.Bits)} for the
+     * contract regarding the returned results.
+     *
+     * @param bits The sequence of bits to test.
+     * @return An array of Result objects describing the outcome(s) of the test
+     *         or null.
+     */
+    public Result[] runTest(LongBits bits);
+}
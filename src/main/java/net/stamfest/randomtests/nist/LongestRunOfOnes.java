@@ -79,7 +79,7 @@ public class LongestRunOfOnes extends AbstractNistTest {
 
         int length = b.getLength();
         double pi[] = new double[7];
-        int run, v_n_obs, i, j, V[] = new int[7];
+        int v_n_obs, i, j, V[] = new int[7];
 
         int [] nu = new int[]{ 0, 0, 0, 0, 0, 0, 0 };
 
@@ -135,18 +135,7 @@ public class LongestRunOfOnes extends AbstractNistTest {
 
         numberOfBlocks = length / blockLen;
         for (i = 0; i < numberOfBlocks; i++) {
-            v_n_obs = 0;
-            run = 0;
-            for (j = 0; j < blockLen; j++) {
-                if (b.bit(i * blockLen + j) == 1) {
-                    run++;
-                    if (run > v_n_obs) {
-                        v_n_obs = run;
-                    }
-                } else {
-                    run = 0;
-                }
-            }
+            v_n_obs = longestRun(b, i * blockLen, blockLen);
             if (v_n_obs < V[0]) {
                 nu[0]++;
             }
@@ -178,6 +167,43 @@ public class LongestRunOfOnes extends AbstractNistTest {
         return new Result[]{ r };
     }
  
+    /**
+     * Find the longest run of ones within a range of a bit sequence, 64 bits
+     * at a time. The run of ones at the end of a word is carried over to the
+     * next word.
+     *
+     * @param b      The bit sequence.
+     * @param offset The index of the first bit of the range.
+     * @param len    The number of bits in the range.
+     * @return The length of the longest run of ones.
+     */
+    private static int longestRun(Bits b, int offset, int len) {
+        int longest = 0, run = 0;
+        for (int j = 0; j < len; j += 64) {
+            long w = b.word(offset + j);
+            if (len - j < 64) {
+                w &= -1L << (64 - (len - j));
+            }
+            if (w == -1L) {
+                run += 64;
+            } else {
+                // leading ones continue the run of the previous word
+                run += Long.numberOfLeadingZeros(~w);
+                longest = Math.max(longest, run);
+
+                // longest run within the word
+                int inner = 0;
+                for (long x = w; x != 0; x &= x << 1) {
+                    inner++;
+                }
+                longest = Math.max(longest, inner);
+
+                run = Long.numberOfTrailingZeros(~w);
+            }
+        }
+        return Math.max(longest, run);
+    }
+
     @Override
     public void report(PrintWriter out, Result[] results) {
         out.println("LONGEST RUNS OF ONES TEST");
@@ -0,0 +1,241 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.nist;
+
+import java.io.PrintWriter;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.nist.utils.GF2Matrix;
+
+/**
+ * A generalization of the {@link Rank} test to matrices of arbitrary size.
+ * The sequence is split into disjoint M x Q matrices, and the number of
+ * matrices with full rank, with full rank - 1 and with lower ranks are
+ * compared to the expected numbers with a chi^2 test (2 degrees of freedom).
+ * MatrixRank(32, 32) yields the same results as the Rank test (up to
+ * rounding). Shapes too far from square, where rank deficient matrices are
+ * practically impossible, are rejected.
+ *
+ * Larger matrices (like 64x64 up to 1024x1024) detect linear relations between
+ * output words of generators with a wide output. The probability of a random
+ * M x Q matrix having rank r is
+ *
+ * 2^(r(Q+M-r)-MQ) * prod_{i=0}^{r-1} (1-2^(i-Q))(1-2^(i-M))/(1-2^(i-r))
+ *
+ * @author Peter Stamfest
+ */
+public class MatrixRank extends AbstractNistTest {
+    public static class MatrixRankResult extends Chi2Result {
+        private int rows;
+        private int cols;
+        private int numberOfMatrices;
+        private int discarded;
+        private double probabilities[];
+        private int frequencies[];
+
+        public MatrixRankResult(double p_value, double chi2) {
+            super(p_value, chi2, 2, null);
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getCols() {
+            return cols;
+        }
+
+        public int getNumberOfMatrices() {
+            return numberOfMatrices;
+        }
+
+        public int getDiscarded() {
+            return discarded;
+        }
+
+        /**
+         * @return The expected probabilities of full rank, full rank - 1 and
+         *         lower ranks.
+         */
+        public double[] getProbabilities() {
+            return probabilities;
+        }
+
+        /**
+         * @return The observed numbers of matrices with full rank, full rank -
+         *         1 and lower ranks.
+         */
+        public int[] getFrequencies() {
+            return frequencies;
+        }
+    }
+
+    /**
+     * Smallest probability accepted for any of the three rank categories.
+     * Matrices far from square are almost certain to have full rank, so the
+     * expected numbers of the other categories would be negligible for any
+     * feasible number of matrices.
+     */
+    private static final double MIN_PROBABILITY = 1e-4;
+
+    private final int rows;
+    private final int cols;
+    private final double probabilities[];
+
+    /**
+     * Constructs a test for square matrices.
+     *
+     * @param size The number of rows and columns of every matrix.
+     */
+    public MatrixRank(int size) {
+        this(size, size);
+    }
+
+    /**
+     * Constructs a test for a given matrix size.
+     *
+     * @param rows The number of rows of every matrix (M).
+     * @param cols The number of columns of every matrix (Q).
+     */
+    public MatrixRank(int rows, int cols) {
+        if (rows < 2 || cols < 2 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("unsupported matrix size " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+
+        /*
+         * The probability of lower ranks is summed up rather than taken as
+         * 1 - (p[0] + p[1]), which would cancel out for non square shapes.
+         */
+        int full = Math.min(rows, cols);
+        probabilities = new double[3];
+        probabilities[0] = rankProbability(rows, cols, full);
+        probabilities[1] = rankProbability(rows, cols, full - 1);
+        for (int r = 0; r <= full - 2; r++) {
+            probabilities[2] += rankProbability(rows, cols, r);
+        }
+        for (double p : probabilities) {
+            if (p < MIN_PROBABILITY) {
+                throw new IllegalArgumentException(String.format("matrix size %dx%d is too far from square, "
+                                                                 + "rank deficient matrices are too unlikely",
+                                                                 rows, cols));
+            }
+        }
+    }
+
+    /**
+     * Computes the probability of a random M x Q matrix over GF(2) having a
+     * given rank.
+     *
+     * @param M The number of rows.
+     * @param Q The number of columns.
+     * @param r The rank.
+     * @return The probability.
+     */
+    public static double rankProbability(int M, int Q, int r) {
+        if (r < 0 || r > Math.min(M, Q)) {
+            return 0;
+        }
+        double product = 1;
+        for (int i = 0; i <= r - 1; i++) {
+            product *= ((1.e0 - Math.pow(2.0, i - (double) Q)) * (1.e0 - Math.pow(2.0, i - (double) M))) / (1.e0 - Math.pow(2.0, (double) i - r));
+        }
+        return Math.pow(2.0, (double) r * (Q + M - r) - (double) M * Q) * product;
+    }
+
+    @Override
+    public Result[] runTest(Bits b) {
+        int length = b.getLength();
+        int size = rows * cols;
+        int full = Math.min(rows, cols);
+
+        int N = length / size;
+        if (N == 0) {
+            return null;
+        }
+
+        double p[] = probabilities.clone();
+
+        int F[] = new int[3];
+        GF2Matrix matrix = new GF2Matrix(rows, cols);
+        for (int k = 0; k < N; k++) {
+            matrix.assignFromBits(b, k * size);
+            int R = matrix.computeRank();
+            if (R == full) {
+                F[0]++;
+            } else if (R == full - 1) {
+                F[1]++;
+            } else {
+                F[2]++;
+            }
+        }
+
+        double chi_squared = 0;
+        for (int i = 0; i < 3; i++) {
+            chi_squared += (F[i] - N * p[i]) * (F[i] - N * p[i]) / (N * p[i]);
+        }
+
+        MatrixRankResult result = new MatrixRankResult(Math.exp(-chi_squared / 2.e0), chi_squared);
+        result.rows = rows;
+        result.cols = cols;
+        result.numberOfMatrices = N;
+        result.discarded = length % size;
+        result.probabilities = p;
+        result.frequencies = F;
+
+        return new Result[]{ result };
+    }
+
+    @Override
+    public void report(PrintWriter out, Result[] results) {
+        out.println("MATRIX RANK TEST");
+        out.println("---------------------------------------------");
+        if (results == null) {
+            out.println("ERROR: There is no result yet");
+            out.printf("- OR - Insufficient # Of Bits To Define An %dx%d Matrix\n\n", rows, cols);
+            return;
+        }
+
+        MatrixRankResult r = (MatrixRankResult) results[0];
+        int full = Math.min(r.getRows(), r.getCols());
+        double p[] = r.getProbabilities();
+        int F[] = r.getFrequencies();
+
+        out.println("COMPUTATIONAL INFORMATION:");
+        out.println("---------------------------------------------");
+        out.printf("(a) Matrix size      = %dx%d\n", r.getRows(), r.getCols());
+        out.printf("(b) Probability P_%d = %f\n", full, p[0]);
+        out.printf("(c)             P_%d = %f\n", full - 1, p[1]);
+        out.printf("(d)            P_<%d = %f\n", full - 1, p[2]);
+        out.printf("(e) Frequency   F_%d = %d\n", full, F[0]);
+        out.printf("(f)             F_%d = %d\n", full - 1, F[1]);
+        out.printf("(g)            F_<%d = %d\n", full - 1, F[2]);
+        out.printf("(h) # of matrices    = %d\n", r.getNumberOfMatrices());
+        out.printf("(i) Chi^2            = %f\n", r.getChi2());
+        out.printf("(j) NOTE: %d BITS WERE DISCARDED.\n", r.getDiscarded());
+        out.println("---------------------------------------------");
+
+        if (r.getPValue() < 0 || r.getPValue() > 1) {
+            out.println("WARNING:  P_VALUE IS OUT OF RANGE.");
+        }
+
+        out.printf("%s\t\tp_value = %f\n\n",
+                   r.isPassed() ? "SUCCESS" : "FAILURE",
+                   r.getPValue());
+    }
+
+    @Override
+    public int getInputSizeRecommendation() {
+        // expect at least 5 matrices in every category (38 for 32x32, like the Rank test)
+        double minP = Math.min(probabilities[0], Math.min(probabilities[1], probabilities[2]));
+        long matrices = (long) Math.ceil(5 / minP);
+        return (int) Math.min(Integer.MAX_VALUE, matrices * rows * cols);
+    }
+
+    @Override
+    public String getDescription() {
+        return super.getDescription() + String.format("(%d,%d)", rows, cols);
+    }
+}
@@ -10,6 +10,7 @@ package net.stamfest.randomtests.nist;
 import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.Iterator;
+import net.stamfest.randomtests.bits.BitCursor;
 import net.stamfest.randomtests.bits.Bits;
 import net.stamfest.randomtests.nist.utils.AperiodicTemplate;
 import org.apache.commons.math3.special.Gamma;
@@ -165,6 +166,7 @@ public class NonOverlappingTemplateMatchings extends AbstractNistTest {
 
         int numberOfTests = Math.min(MAXNUMOFTEMPLATES, numOfTemplates);
         results = new NonOverlappingTemplateMatchingsResult[numberOfTests];
+        BitCursor cursor = new BitCursor(b);
         for (jj = 0; jj < numberOfTests; jj++) {
             sum = 0;
 
@@ -175,8 +177,8 @@ public class NonOverlappingTemplateMatchings extends AbstractNistTest {
                 for (j = 0; j < M - m + 1; j++) {
                     match = 1;
                     for (k = 0; k < m; k++) {
-//                        if ((int) squence[k] != (int) b.bit(i * M + j + k)) {
-                        if ((int) ((seq >> (m - k - 1)) & 0x1) != (int) b.bit(i * M + j + k)) {
+//                        if ((int) squence[k] != cursor.bitAt(i * M + j + k)) {
+                        if ((int) ((seq >> (m - k - 1)) & 0x1) != cursor.bitAt(i * M + j + k)) {
                             match = 0;
                             break;
                         }
@@ -5,6 +5,7 @@
 package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
+import net.stamfest.randomtests.bits.BitCursor;
 import net.stamfest.randomtests.bits.Bits;
 import net.stamfest.randomtests.bits.MutableArrayBits;
 import org.apache.commons.math3.special.Gamma;
@@ -121,12 +122,13 @@ public class OverlappingTemplateMatching extends AbstractNistTest {
         }
         pi[K] = 1 - sum;
 
+        BitCursor cursor = new BitCursor(bits);
         for (i = 0; i < N; i++) {
             W_obs = 0;
             for (j = 0; j < M - m + 1; j++) {
                 match = 1;
                 for (k = 0; k < m; k++) {
-                    if (sequence.bit(k) != bits.bit(i * M + j + k)) {
+                    if (sequence.bit(k) != cursor.bitAt(i * M + j + k)) {
                         match = 0;
                     }
                 }
@@ -8,6 +8,7 @@
 package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
+import net.stamfest.randomtests.bits.BitCursor;
 import net.stamfest.randomtests.bits.Bits;
 import org.apache.commons.math3.special.Gamma;
 
@@ -79,9 +80,10 @@ public class RandomExcursions extends AbstractNistTest {
 
         J = 0;
         /* DETERMINE CYCLES */
-        S_k[0] = 2 * (int) epsilon.bit(0) - 1;
+        BitCursor cursor = new BitCursor(epsilon);
+        S_k[0] = 2 * cursor.bitAt(0) - 1;
         for (i = 1; i < n; i++) {
-            S_k[i] = S_k[i - 1] + 2 * epsilon.bit(i) - 1;
+            S_k[i] = S_k[i - 1] + 2 * cursor.bitAt(i) - 1;
             if (S_k[i] == 0) {
                 J++;
                 if (J > Math.max(1000, n / 100)) {
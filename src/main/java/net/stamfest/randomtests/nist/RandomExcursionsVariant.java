@@ -8,6 +8,7 @@
 package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
+import net.stamfest.randomtests.bits.BitCursor;
 import net.stamfest.randomtests.bits.Bits;
 import org.apache.commons.math3.special.Erf;
 
@@ -74,9 +75,10 @@ public class RandomExcursionsVariant extends AbstractNistTest {
 
 
         J = 0;
-        S_k[0] = 2 * (int) b.bit(0) - 1;
+        BitCursor cursor = new BitCursor(b);
+        S_k[0] = 2 * cursor.bitAt(0) - 1;
         for (i = 1; i < length; i++) {
-            S_k[i] = S_k[i - 1] + 2 * b.bit(i) - 1;
+            S_k[i] = S_k[i - 1] + 2 * cursor.bitAt(i) - 1;
             if (S_k[i] == 0) {
                 J++;
             }
@@ -9,7 +9,7 @@ package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
 import net.stamfest.randomtests.bits.Bits;
-import net.stamfest.randomtests.nist.utils.IntMatrix;
+import net.stamfest.randomtests.nist.utils.BitMatrix;
 
 /**
  * The focus of the test is the rank of disjoint sub-matrices of the entire
@@ -90,7 +90,7 @@ public class Rank extends AbstractNistTest {
             return null;
         }
 
-        IntMatrix matrix = new IntMatrix(32, 32);
+        BitMatrix matrix = new BitMatrix(32, 32);
 
         N = length / (32 * 32);
         r = 32;
@@ -9,6 +9,7 @@ package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
 import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.LongBits;
 import org.apache.commons.math3.special.Erf;
 
 /**
@@ -22,12 +23,12 @@ import org.apache.commons.math3.special.Erf;
  *
  * @author Peter Stamfest
  */
-public class Runs extends AbstractNistTest {
+public class Runs extends AbstractNistTest implements LongNistTest {
 
     public static class RunsResult extends Result {
 
         private double pi;
-        private int V;
+        private long V;
         private double erfc_arg;
 
         public RunsResult(double p_value) {
@@ -38,7 +39,16 @@ public class Runs extends AbstractNistTest {
             return pi;
         }
 
+        /**
+         * @return The total number of runs.
+         * @throws ArithmeticException if the value does not fit into an int (only
+         *                             possible for long indexed sequences).
+         */
         public int getV() {
+            return Math.toIntExact(V);
+        }
+
+        public long getLongV() {
             return V;
         }
 
@@ -50,18 +60,39 @@ public class Runs extends AbstractNistTest {
 
     @Override
     public Result[] runTest(Bits b) {
+        return runTest(LongBits.wrap(b));
+    }
+
+    @Override
+    public Result[] runTest(LongBits b) {
         double pi;
-        int V;
+        long V;
         double erfc_arg;
 
-        int length = b.getLength();
-        int S, k;
+        long length = b.getLength();
+        long S, T, k;
 
+        /*
+         * Count ones and bit transitions in a single pass, 64 bits at a time.
+         * Bit j of (w ^ (w >>> 1 | carry)) is set if bit j of the word differs
+         * from its predecessor, carry holds the last bit of the previous word.
+         */
         S = 0;
-        for (k = 0; k < length; k++) {
-            if (b.bit(k) != 0) {
-                S++;
+        T = 0;
+        long carry = 0;
+        for (k = 0; k < length; k += 64) {
+            long w = b.word(k);
+            long t = w ^ ((w >>> 1) | (carry << 63));
+            if (k == 0) {
+                // the very first bit has no predecessor
+                t &= Long.MAX_VALUE;
+            }
+            if (length - k < 64) {
+                t &= -1L << (64 - (length - k));
             }
+            S += Long.bitCount(w);
+            T += Long.bitCount(t);
+            carry = w & 1;
         }
         pi = (double) S / (double) length;
 
@@ -70,12 +101,7 @@ public class Runs extends AbstractNistTest {
             return null;
         } else {
 //            estimatorCriteriaMet = true;
-            V = 1;
-            for (k = 1; k < length; k++) {
-                if (b.bit(k) != b.bit(k - 1)) {
-                    V++;
-                }
-            }
+            V = 1 + T;
 
             erfc_arg = Math.abs((double) V - 2.0 * length * pi * (1 - pi)) / (2.0 * pi * (1 - pi) * Math.sqrt(2 * length));
 
@@ -107,7 +133,7 @@ public class Runs extends AbstractNistTest {
         out.println("COMPUTATIONAL INFORMATION:");
         out.println("------------------------------------------");
         out.printf("(a) Pi                        = %f\n", r.getPi());
-        out.printf("(b) V_n_obs (Total # of runs) = %d\n", r.getV());
+        out.printf("(b) V_n_obs (Total # of runs) = %d\n", r.getLongV());
         out.println("(c) V_n_obs - 2 n pi (1-pi)");
         out.printf("    -----------------------   = %f\n", r.getErfc_arg());
         out.println("      2 sqrt(2n) pi (1-pi)");
@@ -9,6 +9,7 @@ package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
 import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.LongBits;
 import org.apache.commons.math3.special.Gamma;
 
 /**
@@ -23,11 +24,11 @@ import org.apache.commons.math3.special.Gamma;
  *
  * @author NIST / ported by Peter Stamfest
  */
-public class Serial extends AbstractNistTest {
+public class Serial extends AbstractNistTest implements LongNistTest {
 
     public static class SerialResult extends Result {
         private double psim0, psim1, psim2, del1, del2;
-        private int length;
+        private long length;
         private int blockLength;
 
         /**
@@ -59,7 +60,16 @@ public class Serial extends AbstractNistTest {
             return del2;
         }
 
+        /**
+         * @return The sequence length.
+         * @throws ArithmeticException if the value does not fit into an int (only
+         *                             possible for long indexed sequences).
+         */
         public int getLength() {
+            return Math.toIntExact(length);
+        }
+
+        public long getLongLength() {
             return length;
         }
 
@@ -81,8 +91,13 @@ public class Serial extends AbstractNistTest {
 
     @Override
     public Result[] runTest(Bits b) {
+        return runTest(LongBits.wrap(b));
+    }
+
+    @Override
+    public Result[] runTest(LongBits b) {
         double psim0, psim1, psim2, del1, del2;
-        int length = b.getLength();
+        long length = b.getLength();
 
         psim0 = psi2(m, b);
         psim1 = psi2(m - 1, b);
@@ -113,40 +128,55 @@ public class Serial extends AbstractNistTest {
         return new Result[] { r1, r2 };
     }
 
-    private double psi2(int m, Bits b) {
-        int length = b.getLength();
-        double p_value1, p_value2, psim0, psim1, psim2, del1, del2;
+    private double psi2(int m, LongBits b) {
+        long length = b.getLength();
 
-        int i, j, k, powLen;
-        double sum, numOfBlocks;
-        int P[];
+        long i;
+        int j, k, powLen, mask;
+        double sum;
+        int P[] = null;
+        long longP[] = null;
 
         if ((m == 0) || (m == -1)) {
             return 0.0;
         }
-        numOfBlocks = length;
+        if (length == 0) {
+            return Double.NaN;
+        }
         powLen = (int) Math.pow(2, m + 1) - 1;
 
-        P = new int[powLen];
-        for (i = 1; i < powLen - 1; i++) {
-            P[i] = 0;
-            /* INITIALIZE NODES */
-        }
-        for (i = 0; i < numOfBlocks; i++) {
-            /* COMPUTE FREQUENCY */
-            k = 1;
-            for (j = 0; j < m; j++) {
-                if (b.bit((i + j) % length) == 0) {
-                    k *= 2;
-                } else if (b.bit((i + j) % length) == 1) {
-                    k = 2 * k + 1;
-                }
+        /*
+         * A pattern may occur at most length times, so int counters only
+         * overflow for sequences longer than Integer.MAX_VALUE. Use long
+         * counters (taking twice the memory) for those only.
+         */
+        if (length <= Integer.MAX_VALUE) {
+            P = new int[powLen];
+        } else {
+            longP = new long[powLen];
+        }
+        /*
+         * COMPUTE FREQUENCY: The m bit pattern starting at position i (the
+         * sequence wrapping around at its end) is kept in k. Instead of
+         * collecting all m bits for every i, the pattern for i is derived from
+         * the pattern for i - 1 by shifting in the bit at position i + m - 1.
+         */
+        mask = (1 << m) - 1;
+        k = 0;
+        for (j = 0; j < m - 1; j++) {
+            k = (k << 1) | b.bit(j % length);
+        }
+        for (i = 0; i < length; i++) {
+            k = ((k << 1) | b.bit((i + m - 1) % length)) & mask;
+            if (P != null) {
+                P[mask + k]++;
+            } else {
+                longP[mask + k]++;
             }
-            P[k - 1]++;
         }
         sum = 0.0;
-        for (i = (int) Math.pow(2, m) - 1; i < (int) Math.pow(2, m + 1) - 1; i++) {
-            sum += Math.pow(P[i], 2);
+        for (j = mask; j < powLen; j++) {
+            sum += Math.pow((P != null) ? P[j] : longP[j], 2);
         }
         sum = (sum * Math.pow(2, m) / (double) length) - (double) length;
 
@@ -168,7 +198,7 @@ public class Serial extends AbstractNistTest {
         out.println("COMPUTATIONAL INFORMATION:");
         out.println("---------------------------------------------");
         out.printf("(a) Block length    (m) = %d\n", r1.getBlockLength());
-        out.printf("(b) Sequence length (n) = %d\n", r1.getLength());
+        out.printf("(b) Sequence length (n) = %d\n", r1.getLongLength());
         out.printf("(c) Psi_m               = %f\n", r1.getPsim0());
         out.printf("(d) Psi_m-1             = %f\n", r1.getPsim1());
         out.printf("(e) Psi_m-2             = %f\n", r1.getPsim2());
@@ -8,6 +8,7 @@
 package net.stamfest.randomtests.nist;
 
 import java.io.PrintWriter;
+import net.stamfest.randomtests.bits.BitCursor;
 import net.stamfest.randomtests.bits.Bits;
 import org.apache.commons.math3.special.Erf;
 
@@ -164,11 +165,12 @@ public class Universal extends AbstractNistTest {
         for (i = 0; i < p; i++) {
             T[i] = 0;
         }
+        BitCursor cursor = new BitCursor(b);
         for (i = 1; i <= Q; i++) {
             /* INITIALIZE TABLE */
             decRep = 0;
             for (j = 0; j < L; j++) {
-                decRep += b.bit((i - 1) * L + j) * (long) Math.pow(2, L - 1 - j);
+                decRep += cursor.bitAt((i - 1) * L + j) * (long) Math.pow(2, L - 1 - j);
             }
             T[decRep] = (long) i;
         }
@@ -176,7 +178,7 @@ public class Universal extends AbstractNistTest {
             /* PROCESS BLOCKS */
             decRep = 0;
             for (j = 0; j < L; j++) {
-                decRep += b.bit((i - 1) * L + j) * (long) Math.pow(2, L - 1 - j);
+                decRep += cursor.bitAt((i - 1) * L + j) * (long) Math.pow(2, L - 1 - j);
             }
             sum += Math.log((double) i - T[decRep]) / log2;
             T[decRep] = i;
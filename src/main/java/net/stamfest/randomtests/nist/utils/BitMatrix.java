@@ -0,0 +1,87 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.nist.utils;
+
+import net.stamfest.randomtests.bits.Bits;
+
+/**
+ * A bit packed matrix over GF(2) with up to 64 columns. Every row is kept in
+ * a single long, column 0 being the most significant of the cols low order
+ * bits. Adding one row to another thus is a single XOR, making the rank
+ * computation much cheaper than with an {@link IntMatrix}.
+ *
+ * @author Peter Stamfest
+ */
+public class BitMatrix {
+    private final int rows, cols;
+    private final long matrix[];
+
+    public BitMatrix(int rows, int cols) {
+        if (rows < 0 || cols < 1 || cols > 64) {
+            throw new IllegalArgumentException("unsupported matrix size " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        matrix = new long[rows];
+    }
+
+    /**
+     * Fill the matrix row by row from a bit sequence.
+     *
+     * @param b      The bit sequence.
+     * @param offset The index of the bit to put into row 0, column 0.
+     */
+    public void assignFromBits(Bits b, int offset) {
+        if (offset < 0 || (long) offset + (long) rows * cols > b.getLength()) {
+            throw new IndexOutOfBoundsException();
+        }
+        for (int i = 0; i < rows; i++, offset += cols) {
+            matrix[i] = b.word(offset) >>> (64 - cols);
+        }
+    }
+
+    public int get(int row, int col) {
+        if (col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException();
+        }
+        return (int) (matrix[row] >>> (cols - 1 - col)) & 1;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Compute the rank of the matrix by forward elimination. Every non zero
+     * row becomes a pivot row, its lowest set bit (found with
+     * {@link Long#numberOfTrailingZeros(long)}) is the pivot column, which is
+     * cleared from all rows below. The rank is the number of pivot rows.
+     *
+     * Note that this destroys the content of the matrix.
+     *
+     * @return The rank of the matrix.
+     */
+    public int computeRank() {
+        int rank = 0;
+        for (int i = 0; i < rows; i++) {
+            long row = matrix[i];
+            if (row == 0) {
+                continue;
+            }
+            rank++;
+            int pivot = Long.numberOfTrailingZeros(row);
+            for (int j = i + 1; j < rows; j++) {
+                if (((matrix[j] >>> pivot) & 1) != 0) {
+                    matrix[j] ^= row;
+                }
+            }
+        }
+        return rank;
+    }
+}
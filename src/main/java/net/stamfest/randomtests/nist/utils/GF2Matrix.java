@@ -0,0 +1,207 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.nist.utils;
+
+import net.stamfest.randomtests.bits.Bits;
+
+/**
+ * A bit packed matrix over GF(2) of arbitrary size. In contrast to
+ * {@link BitMatrix}, rows may be longer than 64 columns: Every row is kept in
+ * (cols + 63) / 64 consecutive longs of a single array, column 0 being the
+ * most significant bit of the first long of the row.
+ *
+ * The rank is computed by a blocked forward elimination in the style of the
+ * "Method of Four Russians": Columns are processed in strips of up to 8
+ * columns. Pivots for the columns of a strip are searched first, then a table
+ * of all linear combinations of the pivot rows is built, and every remaining
+ * row is reduced with a single table lookup and one row XOR. For large
+ * matrices this takes about a strip width fewer row operations than plain
+ * Gaussian elimination.
+ *
+ * @author Peter Stamfest
+ */
+public class GF2Matrix {
+    private static final int MAX_STRIP = 8;
+
+    private final int rows, cols;
+    private final int rowWords;
+    private final long matrix[];
+
+    public GF2Matrix(int rows, int cols) {
+        if (rows < 0 || cols < 1) {
+            throw new IllegalArgumentException("unsupported matrix size " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        rowWords = (cols + 63) >>> 6;
+        matrix = new long[Math.multiplyExact(rows, rowWords)];
+    }
+
+    /**
+     * Fill the matrix row by row from a bit sequence.
+     *
+     * @param b      The bit sequence.
+     * @param offset The index of the bit to put into row 0, column 0.
+     */
+    public void assignFromBits(Bits b, int offset) {
+        if (offset < 0 || (long) offset + (long) rows * cols > b.getLength()) {
+            throw new IndexOutOfBoundsException();
+        }
+        for (int i = 0; i < rows; i++, offset += cols) {
+            b.getWords(offset, cols, matrix, i * rowWords);
+        }
+    }
+
+    public int get(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IndexOutOfBoundsException();
+        }
+        return (int) (matrix[row * rowWords + (col >>> 6)] >>> (~col & 63)) & 1;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns width bits of a row starting at column col, column col being
+     * the most significant of the width low order bits of the result.
+     */
+    private int strip(int row, int col, int width) {
+        int p = row * rowWords + (col >>> 6);
+        int off = col & 63;
+        long w = matrix[p] << off;
+        if (off + width > 64) {
+            w |= matrix[p + 1] >>> (64 - off);
+        }
+        return (int) (w >>> (64 - width));
+    }
+
+    private void xorRow(int dest, long src[], int srcPos, int fromWord) {
+        int d = dest * rowWords;
+        for (int k = fromWord; k < rowWords; k++) {
+            matrix[d + k] ^= src[srcPos + k];
+        }
+    }
+
+    private void swapRows(int i, int j) {
+        int a = i * rowWords, b = j * rowWords;
+        for (int k = 0; k < rowWords; k++) {
+            long tmp = matrix[a + k];
+            matrix[a + k] = matrix[b + k];
+            matrix[b + k] = tmp;
+        }
+    }
+
+    /**
+     * Compute the rank of the matrix. Note that this destroys the content of
+     * the matrix.
+     *
+     * @return The rank of the matrix.
+     */
+    public int computeRank() {
+        // strip width: tables should not cost more than the rows they reduce
+        int k = Math.max(1, Math.min(MAX_STRIP, 29 - Integer.numberOfLeadingZeros(Math.max(1, rows))));
+        long table[] = new long[(1 << k) * rowWords];
+        int pivotColumn[] = new int[k];     // strip column of every pivot
+        int pivotStrip[] = new int[k];      // strip bits of every pivot row
+        int pivotOf[] = new int[k];         // pivot for every strip column
+
+        int rank = 0;
+        for (int c = 0; c < cols && rank < rows; c += k) {
+            int width = Math.min(k, cols - c);
+            int fromWord = c >>> 6;
+            int np = 0;
+            int pivotMask = 0;
+            for (int t = 0; t < width; t++) {
+                pivotOf[t] = -1;
+            }
+
+            /*
+             * Find pivots for the columns of the strip. Candidate rows are
+             * reduced by the pivots found so far on their strip bits only, the
+             * selected pivot row is then reduced completely.
+             */
+            for (int t = 0; t < width && rank + np < rows; t++) {
+                int bit = 1 << (width - 1 - t);
+                for (int i = rank + np; i < rows; i++) {
+                    int s = strip(i, c, width);
+                    for (int j = 0; j < np; j++) {
+                        if ((s & (1 << (width - 1 - pivotColumn[j]))) != 0) {
+                            s ^= pivotStrip[j];
+                        }
+                    }
+                    if ((s & bit) != 0) {
+                        int p = rank + np;
+                        swapRows(i, p);
+                        int orig = strip(p, c, width);
+                        for (int j = 0; j < np; j++) {
+                            if ((orig & (1 << (width - 1 - pivotColumn[j]))) != 0) {
+                                xorRow(p, matrix, (rank + j) * rowWords, fromWord);
+                                orig ^= pivotStrip[j];
+                            }
+                        }
+                        pivotColumn[np] = t;
+                        pivotStrip[np] = s;
+                        pivotOf[t] = np;
+                        pivotMask |= bit;
+                        np++;
+                        break;
+                    }
+                }
+            }
+            if (np == 0) {
+                continue;
+            }
+
+            /*
+             * Clear the pivot columns of later pivots from earlier pivot rows,
+             * so every pivot row has a single one within the pivot columns.
+             */
+            for (int j = np - 2; j >= 0; j--) {
+                for (int jj = j + 1; jj < np; jj++) {
+                    if ((pivotStrip[j] & (1 << (width - 1 - pivotColumn[jj]))) != 0) {
+                        xorRow(rank + j, matrix, (rank + jj) * rowWords, fromWord);
+                        pivotStrip[j] ^= pivotStrip[jj];
+                    }
+                }
+            }
+
+            /*
+             * Table of the linear combinations of the pivot rows, indexed by
+             * the strip bits of the row to reduce. Non pivot columns of the
+             * index do not contribute.
+             */
+            for (int s = 1; s < (1 << width); s++) {
+                int prev = (s & (s - 1)) * rowWords;
+                int t = width - 1 - Integer.numberOfTrailingZeros(s);
+                int pos = s * rowWords;
+                int j = pivotOf[t];
+                for (int w = fromWord; w < rowWords; w++) {
+                    table[pos + w] = table[prev + w];
+                }
+                if (j >= 0) {
+                    int src = (rank + j) * rowWords;
+                    for (int w = fromWord; w < rowWords; w++) {
+                        table[pos + w] ^= matrix[src + w];
+                    }
+                }
+            }
+
+            rank += np;
+            for (int i = rank; i < rows; i++) {
+                int s = strip(i, c, width) & pivotMask;
+                if (s != 0) {
+                    xorRow(i, table, s * rowWords, fromWord);
+                }
+            }
+        }
+        return rank;
+    }
+}
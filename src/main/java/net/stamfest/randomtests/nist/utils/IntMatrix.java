@@ -7,6 +7,7 @@
  */
 package net.stamfest.randomtests.nist.utils;
 
+import net.stamfest.randomtests.bits.BitCursor;
 import net.stamfest.randomtests.bits.Bits;
 
 /**
@@ -23,11 +24,30 @@ public class IntMatrix {
     }
     
     public void assignFromBits(Bits b, int offset) {
+        if (offset < 0 || (long) offset + (long) rows * cols > b.getLength()) {
+            throw new IndexOutOfBoundsException();
+        }
+        int i, j, k = 0;
+        long w = 0;
+
+        // 64 bits at a time, without allocating a cursor for every matrix
+        for (i = 0; i < rows; i++) {
+            for (j = 0; j < cols; j++, k++) {
+                if ((k & 63) == 0) {
+                    w = b.word(offset + k);
+                }
+                matrix[i][j] = (int) (w >>> 63);
+                w <<= 1;
+            }
+        }
+    }
+
+    public void assignFromBits(BitCursor b, int offset) {
         int i, j, k = offset;
         
         for (i = 0 ; i < rows ; i++) {
             for (j = 0 ; j < cols ; j++, k++) {
-                matrix[i][j] = b.bit(k);
+                matrix[i][j] = b.bitAt(k);
             }
         }
     }
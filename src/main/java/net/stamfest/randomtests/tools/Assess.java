@@ -41,6 +41,8 @@ import net.stamfest.randomtests.SuiteResult;
 import net.stamfest.randomtests.TestFactory;
 import net.stamfest.randomtests.TestFactory.TestSpec;
 import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.BufferPool;
+import net.stamfest.randomtests.bits.MappedFileBits;
 import net.stamfest.randomtests.bits.RNGBits;
 import net.stamfest.randomtests.nist.NistTest;
 import net.stamfest.randomtests.nist.Result;
@@ -98,6 +100,13 @@ public class Assess {
             usage = "input file format (default is binary)")
     private Format inform = Format.binary;
 
+    @Option(name = "--mmap",
+            usage = "memory map the input file instead of reading it. Every "
+                    + "bit sequence is copied once from the mapping to the "
+                    + "heap, no stream buffers are involved (requires --in "
+                    + "and binary input format)")
+    boolean mmap = false;
+
     @Option(name = "-c",
             aliases = { "--continuous" },
             usage = "continuous testing")
@@ -160,6 +169,7 @@ public class Assess {
     }
 
     private int submittedCount = 0;
+    private BufferPool bufferPool = null;
     private AtomicInteger doneCount = new AtomicInteger(0);
 
     private static interface BitSource {
@@ -259,6 +269,9 @@ public class Assess {
             if (bitSource == null) {
                 fatalExit("missing bit sequence source", 4);
             }
+            if (s != null) {
+                s.setBufferPool(bufferPool);
+            }
             
             runMainLoop(bitSource, s);
 
@@ -278,7 +291,7 @@ public class Assess {
         }
     }
 
-    private BitSource createBitSource() throws FileNotFoundException {
+    private BitSource createBitSource() throws IOException {
         Pattern p = Pattern.compile("^(?<algo>[^@]+)@(?<provider>.*)?$");
         
         BitSource bitSource = null;
@@ -304,12 +317,13 @@ public class Assess {
                 }
                 
                 Random frng = rng;      // effectively final
+                bufferPool = createBufferPool();
                 bitSource = new BitSource() {
                     int cnt = 0;
                     @Override
                     public Bits getBits() {
                         cnt++;
-                        return new RNGBits(frng, length);
+                        return new RNGBits(frng, length, bufferPool.acquire());
                     }
                     @Override
                     public boolean hasMore() {
@@ -324,15 +338,54 @@ public class Assess {
             } catch (Exception ex) {
                 fatalExit(String.format("Problem with class '%s': %s", rngSpec, ex.getMessage()), 3);
             }
+        } else if (in != null && rngSpec == null && mmap) {
+            if (inform != Format.binary) {
+                fatalExit("--mmap requires binary input", 4);
+            }
+            MappedFileBits mapped = new MappedFileBits(in);
+            // the mapped regions stay valid after closing the file
+            mapped.close();
+            bitSource = new BitSource() {
+                int cnt = 0;
+                long offset = 0;
+                private boolean eof = false;
+
+                @Override
+                public Bits getBits() {
+                    cnt++;
+                    if (offset + length > mapped.getLength()) {
+                        // not enough data left, end of input just like for streams
+                        eof = true;
+                        return null;
+                    }
+                    Bits b = mapped.subSeq(offset, length);
+                    offset += length;
+                    return b;
+                }
+
+                @Override
+                public boolean hasMore() {
+                    return !eof && ((sequences == -1) || (cnt < sequences));
+                }
+
+                @Override
+                public void reset() {
+                    // like for streams, continuous testing proceeds with the following data
+                    cnt = 0;
+                }
+            };
         } else if (in != null && rngSpec == null) {
             InputStream is = new BufferedInputStream((in == null) ? System.in : new FileInputStream(in));
+            if (inform == Format.binary) {
+                bufferPool = createBufferPool();
+            }
             bitSource = new BitSource() {
                 int cnt = 0;
                 private boolean eof = false;
                 @Override
                 public Bits getBits() throws IOException {
                     cnt++;
-                    Bits b = inform == Format.ascii ? IO.readAscii(is, length) : IO.readBinary(is, length);
+                    Bits b = inform == Format.ascii ? IO.readAscii(is, length) : IO.readBinary(is, length, bufferPool.acquire());
                     
                     if (b == null || b.getLength() != length) {
                         eof = true;
@@ -357,6 +410,18 @@ public class Assess {
         return bitSource;
     }
 
+    /**
+     * Create a pool for the buffers of the bit sequences read or generated.
+     * The pool keeps enough buffers for all sequences the
+     * ParallelSuiteExecutor may hold at once (running, queued and the one
+     * waiting to be queued) plus the one being filled, so continuous
+     * operation does not allocate new buffers.
+     */
+    private BufferPool createBufferPool() {
+        int inFlight = Runtime.getRuntime().availableProcessors() + ParallelSuiteExecutor.QUEUE_CAPACITY + 2;
+        return new BufferPool((int) ((length + 7L) / 8), inFlight);
+    }
+
     private void doListRng() {
         Provider[] providers = Security.getProviders();
         for (Provider provider : providers) {
@@ -370,6 +435,12 @@ public class Assess {
         }
     }
 
+    private void releaseBits(Bits bits) {
+        if (bufferPool != null) {
+            bufferPool.release(bits);
+        }
+    }
+
     private void runMainLoop(BitSource bitSource, ParallelSuiteExecutor s) throws FileNotFoundException, IOException {
         boolean done = false;
         do {
@@ -400,6 +471,7 @@ public class Assess {
                     Bits bits = bitSource.getBits();
 
                     if (bits == null || bits.getLength() != length) {
+                        releaseBits(bits);
                         done = true;
                         break;
                     }
@@ -418,6 +490,7 @@ public class Assess {
                     } else {
                         // keep progress indicator correct...
                         resultQueue.offer(dummy);
+                        releaseBits(bits);
                     }
                     progress();
                 }
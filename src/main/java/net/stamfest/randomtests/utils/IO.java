@@ -58,6 +58,35 @@ public class IO {
         return new ArrayBits(buf, (n == maxByteCount) ? maxBitCount : (n * 8));
     }
 
+    /**
+     * Read a bit sequence from a binary input stream into a given buffer (e.g.
+     * one obtained from a {@link net.stamfest.randomtests.bits.BufferPool}).
+     * The same conventions as for {@link #readBinary(InputStream, int)}
+     * apply, but no memory gets allocated for the bits.
+     *
+     * @param is          The InputStream to read the bit stream from.
+     * @param maxBitCount The number of bits to read.
+     * @param buf         The buffer receiving the bits. It must hold at least
+     *                    (maxBitCount + 7) / 8 bytes.
+     * @return The bit sequence backed by buf. Its length is less than
+     *         maxBitCount if the stream ended early.
+     * @throws IOException Passed on from InputStream operations.
+     */
+    public static Bits readBinary(InputStream is, int maxBitCount, byte[] buf) throws IOException {
+        int maxByteCount = (int) ((maxBitCount + 7L) / 8);
+        if (buf.length < maxByteCount) {
+            throw new IllegalArgumentException("buffer too small");
+        }
+        int n = 0;
+        int cnt;
+
+        while (n < maxByteCount && (cnt = is.read(buf, n, maxByteCount - n)) > 0) {
+            n += cnt;
+        }
+
+        return new ArrayBits(buf, (n == maxByteCount) ? maxBitCount : (n * 8));
+    }
+
     /**
      * Write a bit sequence as a sequence of bytes, each byte representing 8 bits.
      *
@@ -66,20 +95,23 @@ public class IO {
      * @throws IOException Passed on from InputStream operations.
      */
     public static void writeBinary(OutputStream os, Bits bits) throws IOException {
-        byte b = 0;
-        int n = 0;
-        for (int bit : bits) {
-            b = (byte) ((b << 1) | (byte) bit);
-            n++;
-            if (n % 8 == 0) {
-                os.write(b);
-                b = 0;
+        int len = bits.getLength();
+        byte buf[] = new byte[Math.min(8192, (len + 7) / 8)];
+        int pos = 0;
+
+        for (int n = 0; n < len; n += 64) {
+            long w = bits.word(n);
+            // the last word may hold less than 8 bytes worth of bits
+            int cnt = Math.min(8, (len - n + 7) / 8);
+            if (pos + cnt > buf.length) {
+                os.write(buf, 0, pos);
+                pos = 0;
+            }
+            for (int k = 0; k < cnt; k++) {
+                buf[pos++] = (byte) (w >>> (56 - 8 * k));
             }
         }
-        if (n % 8 != 0) {
-            b = (byte) (b << (8 - n % 8));
-            os.write(b);
-        }
+        os.write(buf, 0, pos);
     }
 
     /**
@@ -136,8 +168,22 @@ public class IO {
      * @throws IOException Passed on from stream operations.
      */
     public static void writeAscii(OutputStream os, Bits b) throws IOException {
-        for (int bit : b) {
-            os.write((bit != 0) ? '1' : '0');
+        int len = b.getLength();
+        byte buf[] = new byte[Math.min(8192, len)];
+        int pos = 0;
+
+        for (int n = 0; n < len; n += 64) {
+            long w = b.word(n);
+            int cnt = Math.min(64, len - n);
+            if (pos + cnt > buf.length) {
+                os.write(buf, 0, pos);
+                pos = 0;
+            }
+            for (int k = 0; k < cnt; k++) {
+                buf[pos++] = (byte) ('0' + (w >>> 63));
+                w <<= 1;
+            }
         }
+        os.write(buf, 0, pos);
     }
 }
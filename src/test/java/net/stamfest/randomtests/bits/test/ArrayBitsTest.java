@@ -6,8 +6,12 @@
  */
 package net.stamfest.randomtests.bits.test;
 
+import java.util.PrimitiveIterator;
+import java.util.Random;
 import junit.framework.Assert;
 import net.stamfest.randomtests.bits.ArrayBits;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.RNGBits;
 import org.junit.Test;
 
 /**
@@ -49,4 +53,71 @@ public class ArrayBitsTest {
         Assert.assertEquals("0 1 0 0 1 0 0 1 1 0 1 0 0 0 1 ", sb.toString());
 
     }
+
+    @Test
+    public void word() {
+        ArrayBits bits = new ArrayBits(new byte[]{ (byte) 0x49, (byte) 0xa3, 0, 0, 0, 0, 0, 0, (byte) 0xff }, 71);
+        Assert.assertEquals(0x49a3000000000000L, bits.word(0));
+        Assert.assertEquals(0x9346000000000001L, bits.word(1));
+        Assert.assertEquals(0xfe00000000000000L, bits.word(64));
+    }
+
+    @Test
+    public void wordsMatchBits() {
+        Random rng = new Random(4711);
+        for (int len : new int[]{ 1, 7, 63, 64, 65, 1000, 1003 }) {
+            Bits bits = new RNGBits(rng, len);
+            for (int i = 0; i < len; i++) {
+                long w = bits.word(i);
+                for (int k = 0; k < 64; k++) {
+                    int expected = (i + k < len) ? bits.bit(i + k) : 0;
+                    Assert.assertEquals(expected, (int) (w >>> (63 - k)) & 1);
+                }
+            }
+
+            for (int offset : new int[]{ 0, 1, 8, 13 }) {
+                if (offset >= len) {
+                    continue;
+                }
+                int l = len - offset;
+                long words[] = new long[(l + 63) / 64 + 1];
+                words[words.length - 1] = -1L;
+                bits.getWords(offset, l, words, 0);
+                for (int i = 0; i < l; i++) {
+                    Assert.assertEquals(bits.bit(offset + i), (int) (words[i / 64] >>> (63 - i % 64)) & 1);
+                }
+                if (l % 64 != 0) {
+                    Assert.assertEquals(0, words[l / 64] & (-1L >>> (l % 64)));
+                }
+                Assert.assertEquals(-1L, words[words.length - 1]);
+            }
+        }
+    }
+
+    @Test
+    public void primitiveIteration() {
+        Bits bits = new RNGBits(new Random(4712), 1001);
+
+        PrimitiveIterator.OfInt it = bits.bitIterator();
+        int n = 0;
+        while (it.hasNext()) {
+            Assert.assertEquals(bits.bit(n++), it.nextInt());
+        }
+        Assert.assertEquals(1001, n);
+
+        StringBuilder sb = new StringBuilder();
+        bits.forEachBit(bit -> sb.append(bit));
+        Assert.assertEquals(1001, sb.length());
+        for (int i = 0; i < 1001; i++) {
+            Assert.assertEquals(bits.bit(i), sb.charAt(i) - '0');
+        }
+
+        long words[] = new long[16];
+        int cnt[] = new int[1];
+        bits.forEachWord(w -> words[cnt[0]++] = w);
+        Assert.assertEquals(16, cnt[0]);
+        for (int i = 0; i < 16; i++) {
+            Assert.assertEquals(bits.word(64 * i), words[i]);
+        }
+    }
 }
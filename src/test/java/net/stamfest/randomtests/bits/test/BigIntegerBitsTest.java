@@ -6,11 +6,14 @@ package net.stamfest.randomtests.bits.test;
 
 import java.math.BigInteger;
 import java.util.Iterator;
+import java.util.Random;
 import junit.framework.Assert;
 import net.stamfest.randomtests.bits.AbstractBaseBits;
 import net.stamfest.randomtests.bits.ArrayBits;
 import net.stamfest.randomtests.bits.BigIntegerBits;
 import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.MutableArrayBits;
+import net.stamfest.randomtests.bits.RNGBits;
 import net.stamfest.randomtests.bits.StringBits;
 import org.junit.Test;
 
@@ -155,4 +158,40 @@ public class BigIntegerBitsTest {
         Assert.assertEquals(bi, bi2);
     }
 
+    @Test
+    public void anyLength() {
+        Random rng = new Random(15);
+        for (int bitLength : new int[]{ 1, 7, 8, 9, 63, 64, 65, 1000 }) {
+            BigInteger bi = new BigInteger(bitLength, rng).setBit(bitLength - 1);
+            for (int length = Math.max(1, bitLength - 10); length < bitLength + 10; length++) {
+                BigIntegerBits bits = new BigIntegerBits(bi, length);
+                for (int i = 0; i < length; i++) {
+                    int j = length - i - 1;
+                    Assert.assertEquals(bi.testBit(j) ? 1 : 0, bits.bit(i));
+                }
+                Assert.assertEquals(new WrappedBits(bits), bits.materialize());
+
+                // the number represented by the (possibly truncated) sequence
+                BigInteger expected = bi.mod(BigInteger.ONE.shiftLeft(length));
+                Assert.assertEquals(expected, BigIntegerBits.getBigInteger(bits));
+                Assert.assertEquals(expected, BigIntegerBits.getBigInteger(new WrappedBits(bits)));
+                Assert.assertEquals(expected, BigIntegerBits.getBigInteger(new ArrayBits(bits)));
+            }
+        }
+    }
+
+    @Test
+    public void arrayPadding() {
+        // the backing arrays are longer than the sequences
+        MutableArrayBits m = new MutableArrayBits(16);
+        m.fill((byte) 0xff);
+        Assert.assertEquals(BigInteger.valueOf(0xffff), BigIntegerBits.getBigInteger(m));
+
+        ArrayBits a = new ArrayBits(new byte[]{ (byte) 0xa5, (byte) 0xff }, 12);
+        Assert.assertEquals(BigInteger.valueOf(0xa5f), BigIntegerBits.getBigInteger(a));
+
+        RNGBits r = new RNGBits(new Random(16), 333);
+        Assert.assertEquals(r, new BigIntegerBits(BigIntegerBits.getBigInteger(r), 333));
+    }
+
 }
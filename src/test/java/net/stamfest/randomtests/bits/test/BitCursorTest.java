@@ -0,0 +1,48 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits.test;
+
+import java.util.Random;
+import junit.framework.Assert;
+import net.stamfest.randomtests.bits.BitCursor;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.LongArrayBits;
+import net.stamfest.randomtests.bits.RNGBits;
+import org.junit.Test;
+
+/**
+ *
+ * @author Peter Stamfest
+ */
+public class BitCursorTest {
+
+    private void check(Bits bits, int offset, int length) {
+        BitCursor cursor = new BitCursor(bits, offset, length);
+        Assert.assertEquals(length, cursor.getLength());
+        for (int i = 0; i < length; i++) {
+            Assert.assertEquals(bits.bit(offset + i), cursor.bitAt(i));
+        }
+    }
+
+    @Test
+    public void ranges() {
+        Random rng = new Random(17);
+        Bits[] sequences = new Bits[]{ new RNGBits(rng, 1000),
+                                       new LongArrayBits(rng, 1000),
+                                       new RNGBits(rng, 1000).reverse() };
+        for (Bits bits : sequences) {
+            check(bits, 0, 1000);
+            check(bits, 0, 100);
+            check(bits, 3, 997);
+            check(bits, 500, 0);
+            check(bits, 999, 1);
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void outOfRange() {
+        new BitCursor(new RNGBits(new Random(18), 100), 50, 51);
+    }
+}
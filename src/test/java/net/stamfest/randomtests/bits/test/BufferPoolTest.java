@@ -0,0 +1,74 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import junit.framework.Assert;
+import net.stamfest.randomtests.ParallelSuiteExecutor;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.BufferPool;
+import net.stamfest.randomtests.bits.RNGBits;
+import net.stamfest.randomtests.utils.IO;
+import org.junit.Test;
+
+/**
+ *
+ * @author Peter Stamfest
+ */
+public class BufferPoolTest {
+
+    @Test
+    public void reuse() {
+        BufferPool pool = new BufferPool(125, 2);
+        byte a[] = pool.acquire();
+        byte b[] = pool.acquire();
+        byte c[] = pool.acquire();
+        Assert.assertEquals(125, a.length);
+        Assert.assertNotSame(a, b);
+
+        pool.release(a);
+        pool.release(a);                // already released
+        pool.release(new byte[125]);    // not from the pool
+        Assert.assertEquals(1, pool.getPooledCount());
+        Assert.assertSame(a, pool.acquire());
+
+        pool.release(new RNGBits(new Random(25), 1000, b));
+        pool.release(new RNGBits(new Random(25), 1000, c));
+        pool.release(new RNGBits(new Random(25), 1000, a));
+        // limited to 2 pooled buffers
+        Assert.assertEquals(2, pool.getPooledCount());
+    }
+
+    @Test
+    public void pooledSources() throws IOException {
+        BufferPool pool = new BufferPool(125, 2);
+        Assert.assertEquals(new RNGBits(new Random(26), 1000),
+                            new RNGBits(new Random(26), 1000, pool.acquire()));
+
+        byte data[] = new byte[200];
+        new Random(27).nextBytes(data);
+        ByteArrayInputStream is = new ByteArrayInputStream(data);
+        Bits first = IO.readBinary(is, 1000, pool.acquire());
+        Bits second = IO.readBinary(is, 1000, pool.acquire());
+        Assert.assertEquals(IO.readBinary(new ByteArrayInputStream(data), 1000), first);
+        Assert.assertEquals(600, second.getLength());
+    }
+
+    @Test
+    public void parallelSuiteReleases() {
+        BufferPool pool = new BufferPool(1250, 100);
+        ParallelSuiteExecutor s = ParallelSuiteExecutor.getStandardParallelTestSuite(null);
+        s.setBufferPool(pool);
+        Random rng = new Random(28);
+        for (int i = 0; i < 5; i++) {
+            s.runSuite(new RNGBits(rng, 10000, pool.acquire()));
+        }
+        s.await();
+        Assert.assertTrue(pool.getPooledCount() > 0);
+        Assert.assertTrue(pool.getPooledCount() <= 5);
+    }
+}
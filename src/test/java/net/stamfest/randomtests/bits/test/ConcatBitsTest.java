@@ -6,10 +6,13 @@ package net.stamfest.randomtests.bits.test;
 
 import java.io.IOException;
 import java.math.BigInteger;
+import java.util.Random;
 import net.stamfest.randomtests.bits.ArrayBits;
 import net.stamfest.randomtests.bits.BigIntegerBits;
 import net.stamfest.randomtests.bits.Bits;
 import net.stamfest.randomtests.bits.ConcatBits;
+import net.stamfest.randomtests.bits.MutableArrayBits;
+import net.stamfest.randomtests.bits.RNGBits;
 import net.stamfest.randomtests.bits.StringBits;
 import net.stamfest.randomtests.utils.IO;
 import org.junit.Assert;
@@ -58,4 +61,38 @@ public class ConcatBitsTest {
         Assert.assertEquals(cb, ab);
     }
 
+    @Test
+    public void manyFragments() {
+        Random rng = new Random(7);
+        Bits fragments[] = new Bits[500];
+        int total = 0;
+        for (int i = 0; i < fragments.length; i++) {
+            // include some empty fragments
+            fragments[i] = new RNGBits(rng, rng.nextInt(100) * (i % 7 == 0 ? 0 : 1));
+            total += fragments[i].getLength();
+        }
+        ConcatBits cb = new ConcatBits(fragments);
+        Assert.assertEquals(total, cb.getLength());
+
+        MutableArrayBits expected = new MutableArrayBits(total);
+        int n = 0;
+        for (Bits fragment : fragments) {
+            for (int i = 0; i < fragment.getLength(); i++) {
+                expected.setBit(n++, fragment.bit(i));
+            }
+        }
+
+        for (int i = 0; i < total; i++) {
+            Assert.assertEquals(expected.bit(i), cb.bit(i));
+        }
+        // random access
+        for (int k = 0; k < 1000; k++) {
+            int i = rng.nextInt(total);
+            Assert.assertEquals(expected.bit(i), cb.bit(i));
+            Assert.assertEquals(expected.word(i), cb.word(i));
+        }
+
+        ArrayBits materialized = cb.materialize();
+        Assert.assertEquals(expected, materialized);
+    }
 }
@@ -0,0 +1,93 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import junit.framework.Assert;
+import net.stamfest.randomtests.bits.ArrayBits;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.LargeArrayBits;
+import net.stamfest.randomtests.bits.LongBits;
+import net.stamfest.randomtests.nist.BlockFrequency;
+import net.stamfest.randomtests.nist.CumulativeSums;
+import net.stamfest.randomtests.nist.Frequency;
+import net.stamfest.randomtests.nist.LongNistTest;
+import net.stamfest.randomtests.nist.Result;
+import net.stamfest.randomtests.nist.Runs;
+import org.junit.Test;
+
+/**
+ *
+ * @author Peter Stamfest
+ */
+public class LargeArrayBitsTest {
+    private byte data[] = new byte[12345];
+
+    public LargeArrayBitsTest() {
+        new Random(5).nextBytes(data);
+    }
+
+    @Test
+    public void fromStream() throws IOException {
+        Bits expected = new ArrayBits(data);
+        LongBits bits = new LargeArrayBits(new ByteArrayInputStream(data), Long.MAX_VALUE);
+        Assert.assertEquals(expected.getLength(), bits.getLength());
+        for (int i = 0; i < expected.getLength(); i++) {
+            Assert.assertEquals(expected.bit(i), bits.bit(i));
+            Assert.assertEquals(expected.word(i), bits.word(i));
+        }
+    }
+
+    @Test
+    public void window() throws IOException {
+        Bits expected = new ArrayBits(data);
+        LongBits bits = new LargeArrayBits(new ByteArrayInputStream(data), 80000);
+        Bits window = bits.subSeq(1000, 5003);
+        Assert.assertEquals(5003, window.getLength());
+        Assert.assertEquals(expected.subSeq(1000, 5003, 1), window);
+        Assert.assertSame(bits, LongBits.wrap(bits.subSeq(0, 80000)));
+    }
+
+    @Test
+    public void wrap() {
+        Bits expected = new ArrayBits(data);
+        LongBits wrapped = LongBits.wrap(expected);
+        Assert.assertEquals(expected.getLength(), wrapped.getLength());
+        Assert.assertSame(expected, wrapped.subSeq(0, expected.getLength()));
+        Assert.assertEquals(expected.word(77), wrapped.word(77));
+    }
+
+    @Test
+    public void sameResults() throws IOException {
+        Bits b = new ArrayBits(data);
+        LongBits lb = new LargeArrayBits(new ByteArrayInputStream(data), Long.MAX_VALUE);
+
+        for (LongNistTest test : new LongNistTest[]{ new Frequency(), new BlockFrequency(100), new CumulativeSums(), new Runs() }) {
+            Result[] r1 = test.runTest(b);
+            Result[] r2 = test.runTest(lb);
+            Assert.assertEquals(r1.length, r2.length);
+            for (int i = 0; i < r1.length; i++) {
+                Assert.assertEquals(r1[i].getPValue(), r2[i].getPValue(), 0.0);
+            }
+        }
+    }
+
+    @Test
+    public void bitCount() throws IOException {
+        LongBits lb = new LargeArrayBits(new ByteArrayInputStream(data), Long.MAX_VALUE);
+        Random rng = new Random(29);
+        for (int round = 0; round < 200; round++) {
+            long from = rng.nextInt((int) lb.getLength());
+            long to = from + rng.nextInt((int) (lb.getLength() - from) + 1);
+            long expected = 0;
+            for (long i = from; i < to; i++) {
+                expected += lb.bit(i);
+            }
+            Assert.assertEquals(expected, lb.bitCount(from, to));
+        }
+    }
+}
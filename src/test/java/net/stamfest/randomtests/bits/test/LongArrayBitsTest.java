@@ -0,0 +1,87 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+import junit.framework.Assert;
+import net.stamfest.randomtests.bits.ArrayBits;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.LongArrayBits;
+import net.stamfest.randomtests.bits.RNGBits;
+import net.stamfest.randomtests.bits.StringBits;
+import org.junit.Test;
+
+/**
+ *
+ * @author Peter Stamfest
+ */
+public class LongArrayBitsTest {
+    @Test
+    public void ordering() {
+        LongArrayBits bits = new LongArrayBits(new long[]{ 0x49a3000000000000L }, 15);
+        Bits expected = new ArrayBits(new byte[]{ (byte) 0x49, (byte) 0xa3 }, 15);
+        Assert.assertEquals(expected, bits);
+        Assert.assertEquals(15, bits.getLength());
+    }
+
+    @Test
+    public void fromStream() throws IOException {
+        byte data[] = new byte[1000];
+        new Random(1).nextBytes(data);
+
+        Bits expected = new ArrayBits(data, 7995);
+        LongArrayBits bits = new LongArrayBits(new ByteArrayInputStream(data), 7995);
+        Assert.assertEquals(7995, bits.getLength());
+        Assert.assertEquals(expected, bits);
+
+        // stream ends early
+        bits = new LongArrayBits(new ByteArrayInputStream(data), 100000);
+        Assert.assertEquals(8000, bits.getLength());
+        Assert.assertEquals(new ArrayBits(data), bits);
+    }
+
+    @Test
+    public void copy() {
+        Bits source = new RNGBits(new Random(2), 1001);
+        LongArrayBits bits = new LongArrayBits(source);
+        Assert.assertEquals(source, bits);
+        for (int i = 0; i < 1001; i++) {
+            Assert.assertEquals(source.word(i), bits.word(i));
+        }
+    }
+
+    @Test
+    public void bitCount() {
+        LongArrayBits bits = new LongArrayBits(new Random(3), 1000);
+        for (int from = 0; from < 200; from += 7) {
+            for (int to = from; to <= 1000; to += 13) {
+                int expected = 0;
+                for (int i = from; i < to; i++) {
+                    expected += bits.bit(i);
+                }
+                Assert.assertEquals(expected, bits.bitCount(from, to));
+            }
+        }
+    }
+
+    @Test
+    public void nextSetAndClearBit() {
+        LongArrayBits bits = new LongArrayBits(new StringBits("0000 1111 0000 0000 0000 0000 0000 0000 "
+                                                              + "0000 0000 0000 0000 0000 0000 0000 0000 "
+                                                              + "0001 1111 1111 1111 1111 1111 1111 1111 "
+                                                              + "1111 1111 1111 1111 1111 1111 1111 1111 "
+                                                              + "111"));
+        Assert.assertEquals(4, bits.nextSetBit(0));
+        Assert.assertEquals(7, bits.nextSetBit(7));
+        Assert.assertEquals(67, bits.nextSetBit(8));
+        Assert.assertEquals(-1, bits.nextSetBit(131));
+        Assert.assertEquals(0, bits.nextClearBit(0));
+        Assert.assertEquals(8, bits.nextClearBit(4));
+        Assert.assertEquals(66, bits.nextClearBit(66));
+        Assert.assertEquals(-1, bits.nextClearBit(67));
+    }
+}
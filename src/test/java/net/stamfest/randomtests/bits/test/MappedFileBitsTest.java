@@ -0,0 +1,63 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import junit.framework.Assert;
+import net.stamfest.randomtests.bits.ArrayBits;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.MappedFileBits;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ *
+ * @author Peter Stamfest
+ */
+public class MappedFileBitsTest {
+    private File file;
+    private byte data[] = new byte[4099];
+
+    @Before
+    public void setup() throws IOException {
+        new Random(6).nextBytes(data);
+        file = File.createTempFile("mapped", ".dat");
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            fos.write(data);
+        }
+    }
+
+    @After
+    public void cleanup() {
+        file.delete();
+    }
+
+    @Test
+    public void content() throws IOException {
+        Bits expected = new ArrayBits(data);
+        try (MappedFileBits bits = new MappedFileBits(file)) {
+            Assert.assertEquals(expected.getLength(), bits.getLength());
+            for (int i = 0; i < expected.getLength(); i++) {
+                Assert.assertEquals(expected.bit(i), bits.bit(i));
+                Assert.assertEquals(expected.word(i), bits.word(i));
+            }
+        }
+    }
+
+    @Test
+    public void slices() throws IOException {
+        Bits expected = new ArrayBits(data);
+        try (MappedFileBits bits = new MappedFileBits(file, 30000)) {
+            Assert.assertEquals(30000, bits.getLength());
+            for (int offset = 0; offset + 1000 <= bits.getLength(); offset += 1000) {
+                Assert.assertEquals(expected.subSeq(offset, 1000, 1), bits.subSeq(offset, 1000));
+            }
+        }
+    }
+}
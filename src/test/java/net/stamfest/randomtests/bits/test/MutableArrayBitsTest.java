@@ -6,8 +6,11 @@
  */
 package net.stamfest.randomtests.bits.test;
 
+import java.util.Random;
 import junit.framework.Assert;
+import net.stamfest.randomtests.bits.Bits;
 import net.stamfest.randomtests.bits.MutableArrayBits;
+import net.stamfest.randomtests.bits.RNGBits;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -185,4 +188,111 @@ public class MutableArrayBitsTest {
         }
     }
     
+
+    private static MutableArrayBits random(Random rng, int len) {
+        MutableArrayBits m = new MutableArrayBits(len);
+        m.assignFrom(new RNGBits(rng, len));
+        return m;
+    }
+
+    private static int[] copy(Bits bits) {
+        int a[] = new int[bits.getLength()];
+        for (int i = 0; i < a.length; i++) {
+            a[i] = bits.bit(i);
+        }
+        return a;
+    }
+
+    private static void assertBits(int[] expected, Bits actual) {
+        Assert.assertEquals(expected.length, actual.getLength());
+        for (int i = 0; i < expected.length; i++) {
+            Assert.assertEquals("bit " + i, expected[i], actual.bit(i));
+        }
+    }
+
+    @Test
+    public void bulkCopyAndXor() {
+        Random rng = new Random(19);
+        for (int round = 0; round < 200; round++) {
+            int len = 1 + rng.nextInt(300);
+            MutableArrayBits m = random(rng, len);
+            Bits src = new RNGBits(rng, 1 + rng.nextInt(300));
+            int cnt = rng.nextInt(Math.min(len, src.getLength()) + 1);
+            int srcOffset = rng.nextInt(src.getLength() - cnt + 1);
+            int offset = rng.nextInt(len - cnt + 1);
+
+            int expected[] = copy(m);
+            if (rng.nextBoolean()) {
+                for (int i = 0; i < cnt; i++) {
+                    expected[offset + i] = src.bit(srcOffset + i);
+                }
+                m.copyFrom(src, srcOffset, offset, cnt);
+            } else {
+                for (int i = 0; i < cnt; i++) {
+                    expected[offset + i] ^= src.bit(srcOffset + i);
+                }
+                m.xorFrom(src, srcOffset, offset, cnt);
+            }
+            assertBits(expected, m);
+        }
+    }
+
+    @Test
+    public void overlappingXor() {
+        Random rng = new Random(20);
+        for (int round = 0; round < 100; round++) {
+            MutableArrayBits m = random(rng, 200);
+            int expected[] = copy(m);
+            int orig[] = copy(m);
+            int srcOffset = rng.nextInt(100);
+            int offset = rng.nextInt(100);
+            for (int i = 0; i < 100; i++) {
+                expected[offset + i] ^= orig[srcOffset + i];
+            }
+            m.xorFrom(m, srcOffset, offset, 100);
+            assertBits(expected, m);
+        }
+    }
+
+    @Test
+    public void setRangeAndShift() {
+        Random rng = new Random(21);
+        for (int round = 0; round < 200; round++) {
+            int len = 1 + rng.nextInt(300);
+            MutableArrayBits m = random(rng, len);
+            int expected[] = copy(m);
+
+            int from = rng.nextInt(len + 1);
+            int to = from + rng.nextInt(len - from + 1);
+            int value = rng.nextInt(2);
+            for (int i = from; i < to; i++) {
+                expected[i] = value;
+            }
+            m.setRange(from, to, value);
+            assertBits(expected, m);
+
+            int k = rng.nextInt(len + 10);
+            int shifted[] = new int[len];
+            if (rng.nextBoolean()) {
+                for (int i = 0; i + k < len; i++) {
+                    shifted[i] = expected[i + k];
+                }
+                m.shiftLeft(k);
+            } else {
+                for (int i = k; i < len; i++) {
+                    shifted[i] = expected[i - k];
+                }
+                m.shiftRight(k);
+            }
+            assertBits(shifted, m);
+        }
+    }
+
+    @Test
+    public void assignFromView() {
+        Bits src = new RNGBits(new Random(22), 1000).reverse();
+        MutableArrayBits m = new MutableArrayBits(10);
+        m.assignFrom(src);
+        assertBits(copy(src), m);
+    }
 }
@@ -0,0 +1,82 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits.test;
+
+import java.util.Random;
+import junit.framework.Assert;
+import net.stamfest.randomtests.bits.ArrayBits;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.FeistelPermutation;
+import net.stamfest.randomtests.bits.Permutation;
+import net.stamfest.randomtests.bits.PermutedBits;
+import net.stamfest.randomtests.bits.RNGBits;
+import net.stamfest.randomtests.bits.RandomPermutation;
+import org.junit.Test;
+
+/**
+ *
+ * @author Peter Stamfest
+ */
+public class PermutedBitsTest {
+
+    @Test
+    public void feistelIsPermutation() {
+        for (int len : new int[]{ 1, 2, 3, 5, 16, 17, 1000, 65536, 100001 }) {
+            FeistelPermutation perm = new FeistelPermutation(0x1234L, len);
+            Assert.assertEquals(len, perm.getLength());
+            boolean seen[] = new boolean[len];
+            for (int i = 0; i < len; i++) {
+                int m = perm.getMappedIndex(i);
+                Assert.assertTrue(m >= 0 && m < len);
+                Assert.assertFalse(seen[m]);
+                seen[m] = true;
+            }
+        }
+    }
+
+    @Test
+    public void feistelKeys() {
+        FeistelPermutation a = new FeistelPermutation(1L, 10000);
+        FeistelPermutation b = new FeistelPermutation(1L, 10000);
+        FeistelPermutation c = new FeistelPermutation(2L, 10000);
+        int fixed = 0, same = 0;
+        for (int i = 0; i < 10000; i++) {
+            Assert.assertEquals(a.getMappedIndex(i), b.getMappedIndex(i));
+            if (a.getMappedIndex(i) == i) {
+                fixed++;
+            }
+            if (a.getMappedIndex(i) == c.getMappedIndex(i)) {
+                same++;
+            }
+        }
+        // about 1 expected for random permutations
+        Assert.assertTrue(fixed < 10);
+        Assert.assertTrue(same < 10);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void feistelOutOfBounds() {
+        new FeistelPermutation(1L, 100).getMappedIndex(100);
+    }
+
+    private void checkMaterialize(Bits base, Permutation perm) {
+        PermutedBits p = new PermutedBits(base, perm);
+        ArrayBits m = p.materialize();
+        Assert.assertEquals(p.getLength(), m.getLength());
+        for (int i = 0; i < p.getLength(); i++) {
+            Assert.assertEquals(p.bit(i), m.bit(i));
+        }
+    }
+
+    @Test
+    public void materialize() {
+        Random rng = new Random(13);
+        Bits base = new RNGBits(rng, 600000);
+        checkMaterialize(base, new FeistelPermutation(rng, 600000));
+        checkMaterialize(base, new FeistelPermutation(rng, 12345));
+        checkMaterialize(base.reverse(), new RandomPermutation(rng, 1000));
+        checkMaterialize(base, new FeistelPermutation(rng, 0));
+    }
+}
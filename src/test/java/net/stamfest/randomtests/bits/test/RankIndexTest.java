@@ -0,0 +1,109 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits.test;
+
+import java.util.Random;
+import junit.framework.Assert;
+import net.stamfest.randomtests.bits.ArrayBits;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.LongArrayBits;
+import net.stamfest.randomtests.bits.MutableArrayBits;
+import net.stamfest.randomtests.bits.RNGBits;
+import net.stamfest.randomtests.bits.RankIndex;
+import org.junit.Test;
+
+/**
+ *
+ * @author Peter Stamfest
+ */
+public class RankIndexTest {
+
+    private void check(Bits bits) {
+        RankIndex index = new RankIndex(bits);
+        Assert.assertEquals(bits.getLength(), index.getLength());
+
+        int ones = 0;
+        for (int i = 0; i < bits.getLength(); i++) {
+            Assert.assertEquals(ones, index.rank(i));
+            if (bits.bit(i) == 1) {
+                Assert.assertEquals(i, index.select(ones));
+                ones++;
+            }
+        }
+        Assert.assertEquals(ones, index.rank(bits.getLength()));
+        Assert.assertEquals(ones, index.getOnes());
+        Assert.assertEquals(-1, index.select(ones));
+    }
+
+    @Test
+    public void rankAndSelect() {
+        Random rng = new Random(10);
+        for (int len : new int[]{ 0, 1, 63, 64, 511, 512, 513, 65535, 65536, 65537, 200000 }) {
+            check(new RNGBits(rng, len));
+        }
+    }
+
+    @Test
+    public void sparse() {
+        // long runs of zeros, so that many directory entries are equal
+        MutableArrayBits bits = new MutableArrayBits(300000);
+        bits.fill((byte) 0);
+        bits.setBit(5, 1);
+        bits.setBit(70000, 1);
+        bits.setBit(70001, 1);
+        bits.setBit(299999, 1);
+        check(bits);
+
+        RankIndex index = bits.getRankIndex();
+        Assert.assertEquals(70000, index.select(1));
+        Assert.assertEquals(299999, index.select(3));
+        Assert.assertEquals(2, index.count(6, 70002));
+    }
+
+    @Test
+    public void count() {
+        Bits bits = new LongArrayBits(new Random(11), 10000);
+        RankIndex index = bits.getRankIndex();
+        for (int from = 0; from < 10000; from += 97) {
+            for (int to = from; to <= 10000; to += 331) {
+                int expected = 0;
+                for (int i = from; i < to; i++) {
+                    expected += bits.bit(i);
+                }
+                Assert.assertEquals(expected, index.count(from, to));
+            }
+        }
+    }
+
+    @Test
+    public void cached() {
+        ArrayBits bits = new RNGBits(new Random(12), 1000);
+        Assert.assertSame(bits.getRankIndex(), bits.getRankIndex());
+
+        MutableArrayBits mutable = new MutableArrayBits(1000);
+        mutable.fill((byte) 0);
+        Assert.assertEquals(0, mutable.getRankIndex().getOnes());
+        mutable.setBit(17, 1);
+        Assert.assertEquals(1, mutable.getRankIndex().getOnes());
+
+        // arrays owned by the caller may change
+        byte bytes[] = new byte[125];
+        ArrayBits wrapped = new ArrayBits(bytes);
+        Assert.assertEquals(0, wrapped.getRankIndex().getOnes());
+        bytes[3] = (byte) 0x81;
+        Assert.assertEquals(2, wrapped.getRankIndex().getOnes());
+
+        ArrayBits copy = new ArrayBits((Bits) wrapped);
+        Assert.assertSame(copy.getRankIndex(), copy.getRankIndex());
+
+        long words[] = new long[16];
+        LongArrayBits wrappedWords = new LongArrayBits(words, 1000);
+        Assert.assertEquals(0, wrappedWords.getRankIndex().getOnes());
+        words[5] = 7;
+        Assert.assertEquals(3, wrappedWords.getRankIndex().getOnes());
+        LongArrayBits owned = new LongArrayBits(new Random(13), 1000);
+        Assert.assertSame(owned.getRankIndex(), owned.getRankIndex());
+    }
+}
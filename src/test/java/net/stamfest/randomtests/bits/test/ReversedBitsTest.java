@@ -7,6 +7,8 @@ package net.stamfest.randomtests.bits.test;
 import java.security.NoSuchAlgorithmException;
 import java.util.Random;
 import junit.framework.Assert;
+import net.stamfest.randomtests.bits.ArrayBits;
+import net.stamfest.randomtests.bits.Bits;
 import net.stamfest.randomtests.bits.RNGBits;
 import net.stamfest.randomtests.bits.ReversedBits;
 import net.stamfest.randomtests.bits.StringBits;
@@ -38,4 +40,23 @@ public class ReversedBitsTest {
         Assert.assertEquals(new ReversedBits(new ReversedBits(rng)), rng);
     }
 
+
+    @Test
+    public void words() {
+        Random rng = new Random(14);
+        for (int len : new int[]{ 1, 5, 63, 64, 65, 127, 128, 1000 }) {
+            Bits base = new RNGBits(rng, len);
+            ReversedBits r = new ReversedBits(base);
+            for (int i = 0; i < len; i++) {
+                long w = r.word(i);
+                for (int k = 0; k < 64; k++) {
+                    int expected = (i + k < len) ? r.bit(i + k) : 0;
+                    Assert.assertEquals(expected, (int) (w >>> (63 - k)) & 1);
+                }
+            }
+            ArrayBits materialized = r.materialize();
+            Assert.assertEquals(r, materialized);
+            Assert.assertSame(base, r.reverse());
+        }
+    }
 }
@@ -0,0 +1,80 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.bits.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import junit.framework.Assert;
+import net.stamfest.randomtests.bits.BitSpliterator;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.RNGBits;
+import org.junit.Test;
+
+/**
+ *
+ * @author Peter Stamfest
+ */
+public class SpliteratorTest {
+
+    @Test
+    public void streams() {
+        Random rng = new Random(23);
+        for (int len : new int[]{ 0, 1, 63, 64, 65, 1000, 100001 }) {
+            Bits bits = new RNGBits(rng, len);
+            int ones = bits.getRankIndex().getOnes();
+
+            Assert.assertEquals(len, bits.bitStream().count());
+            Assert.assertEquals(len, bits.bitStream().parallel().count());
+            Assert.assertEquals(ones, bits.bitStream().parallel().sum());
+            Assert.assertEquals(ones, bits.wordStream().parallel().map(Long::bitCount).sum());
+            Assert.assertEquals((len + 63) / 64, bits.wordStream().parallel().count());
+
+            // ordered: the parallel stream must reproduce the sequence
+            int[] all = bits.bitStream().parallel().toArray();
+            for (int i = 0; i < len; i++) {
+                Assert.assertEquals(bits.bit(i), all[i]);
+            }
+            long[] words = bits.wordStream().parallel().toArray();
+            for (int k = 0; k < words.length; k++) {
+                Assert.assertEquals(bits.word(64 * k), words[k]);
+            }
+        }
+    }
+
+    @Test
+    public void splitOnWordBoundaries() {
+        Bits bits = new RNGBits(new Random(24), 100000);
+        List<Spliterator.OfInt> parts = new ArrayList<>();
+        parts.add(new BitSpliterator(bits, 3, 99990));
+        for (int round = 0; round < 6; round++) {
+            List<Spliterator.OfInt> next = new ArrayList<>();
+            for (Spliterator.OfInt s : parts) {
+                Spliterator.OfInt prefix = s.trySplit();
+                if (prefix != null) {
+                    next.add(prefix);
+                }
+                next.add(s);
+            }
+            parts = next;
+        }
+        Assert.assertEquals(64, parts.size());
+
+        long total = 0;
+        int[] index = new int[]{ 3 };
+        for (Spliterator.OfInt s : parts) {
+            Assert.assertTrue(s.hasCharacteristics(Spliterator.SUBSIZED));
+            long size = s.estimateSize();
+            if (s != parts.get(0)) {
+                Assert.assertEquals(0, index[0] % 64);
+            }
+            s.forEachRemaining((int bit) -> Assert.assertEquals(bits.bit(index[0]++), bit));
+            total += size;
+        }
+        Assert.assertEquals(99987, total);
+        Assert.assertEquals(99990, index[0]);
+    }
+}
@@ -4,7 +4,10 @@
  */
 package net.stamfest.randomtests.bits.test;
 
+import java.util.Random;
 import junit.framework.Assert;
+import net.stamfest.randomtests.bits.ArrayBits;
+import net.stamfest.randomtests.bits.RNGBits;
 import net.stamfest.randomtests.bits.StringBits;
 import net.stamfest.randomtests.bits.SubSequence;
 import org.junit.Before;
@@ -75,4 +78,26 @@ public class SubSequenceTest {
         Assert.assertEquals(0, sub.bit(i++));
     }
 
+
+    @Test
+    public void words() {
+        RNGBits base = new RNGBits(new Random(9), 2000);
+        for (int step = 1; step <= 9; step++) {
+            for (int offset : new int[]{ 0, 1, 5, 63, 64, 100 }) {
+                SubSequence sub = new SubSequence(base, offset, 0, step);
+                for (int i = 0; i < sub.getLength(); i++) {
+                    long w = sub.word(i);
+                    for (int k = 0; k < 64; k++) {
+                        int expected = (i + k < sub.getLength()) ? sub.bit(i + k) : 0;
+                        Assert.assertEquals(expected, (int) (w >>> (63 - k)) & 1);
+                    }
+                }
+                ArrayBits materialized = sub.materialize();
+                Assert.assertEquals(sub.getLength(), materialized.getLength());
+                for (int i = 0; i < sub.getLength(); i++) {
+                    Assert.assertEquals(sub.bit(i), materialized.bit(i));
+                }
+            }
+        }
+    }
 }
@@ -4,8 +4,11 @@
  */
 package net.stamfest.randomtests.bits.test;
 
+import java.util.Random;
 import junit.framework.Assert;
+import net.stamfest.randomtests.bits.ArrayBits;
 import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.RNGBits;
 import net.stamfest.randomtests.bits.StringBits;
 import net.stamfest.randomtests.bits.XORBits;
 import org.junit.Test;
@@ -52,4 +55,26 @@ public class XORBitsTest {
             Assert.assertEquals(expected.bit(i), x.bit(i));
         }
     }
+
+    @Test
+    public void words() {
+        Random rng = new Random(8);
+        Bits base = new RNGBits(rng, 1000);
+        for (int keyLen : new int[]{ 1, 2, 3, 7, 31, 63, 64, 65, 100, 999, 1000, 1500 }) {
+            Bits key = new RNGBits(rng, keyLen);
+            XORBits x = new XORBits(base, key);
+            for (int i = 0; i < base.getLength(); i++) {
+                long w = x.word(i);
+                for (int k = 0; k < 64; k++) {
+                    int expected = (i + k < base.getLength()) ? x.bit(i + k) : 0;
+                    Assert.assertEquals(expected, (int) (w >>> (63 - k)) & 1);
+                }
+            }
+            ArrayBits materialized = x.materialize();
+            Assert.assertEquals(base.getLength(), materialized.getLength());
+            for (int i = 0; i < base.getLength(); i++) {
+                Assert.assertEquals(x.bit(i), materialized.bit(i));
+            }
+        }
+    }
 }
@@ -0,0 +1,141 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.nist.test;
+
+import java.util.Random;
+import net.stamfest.randomtests.bits.ArrayBits;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.RNGBits;
+import net.stamfest.randomtests.nist.utils.BitMatrix;
+import net.stamfest.randomtests.nist.utils.GF2Matrix;
+import net.stamfest.randomtests.nist.utils.IntMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ *
+ * @author Peter Stamfest
+ */
+public class BitMatrixTest {
+
+    /*
+     * Textbook Gaussian elimination over GF(2), column by column.
+     */
+    private static int referenceRank(Bits bits, int offset, int rows, int cols) {
+        int m[][] = new int[rows][cols];
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                m[i][j] = bits.bit(offset + i * cols + j);
+            }
+        }
+        int rank = 0;
+        for (int j = 0; j < cols && rank < rows; j++) {
+            int p = rank;
+            while (p < rows && m[p][j] == 0) {
+                p++;
+            }
+            if (p == rows) {
+                continue;
+            }
+            int tmp[] = m[p];
+            m[p] = m[rank];
+            m[rank] = tmp;
+            for (int i = rank + 1; i < rows; i++) {
+                if (m[i][j] == 1) {
+                    for (int k = j; k < cols; k++) {
+                        m[i][k] ^= m[rank][k];
+                    }
+                }
+            }
+            rank++;
+        }
+        return rank;
+    }
+
+    @Test
+    public void sameRank() {
+        Random rng = new Random(22);
+        int sizes[][] = { { 32, 32 }, { 6, 8 }, { 8, 6 }, { 64, 64 }, { 3, 1 } };
+        for (int size[] : sizes) {
+            int rows = size[0], cols = size[1];
+            for (int round = 0; round < 200; round++) {
+                Bits bits = new RNGBits(rng, rows * cols + 5);
+                if (round % 4 == 0) {
+                    // sparse matrices have lower ranks
+                    byte data[] = new byte[(rows * cols + 5 + 7) / 8];
+                    for (int k = 0; k < data.length; k++) {
+                        data[k] = (byte) (1 << rng.nextInt(32));
+                    }
+                    bits = new ArrayBits(data, rows * cols + 5);
+                }
+                int offset = round % 6;
+
+                BitMatrix bm = new BitMatrix(rows, cols);
+                bm.assignFromBits(bits, offset);
+                for (int i = 0; i < rows; i++) {
+                    for (int j = 0; j < cols; j++) {
+                        Assert.assertEquals(bits.bit(offset + i * cols + j), bm.get(i, j));
+                    }
+                }
+
+                int expected = referenceRank(bits, offset, rows, cols);
+                Assert.assertEquals(rows + "x" + cols, expected, bm.computeRank());
+                if (rows == cols) {
+                    IntMatrix im = new IntMatrix(rows, cols);
+                    im.assignFromBits(bits, offset);
+                    Assert.assertEquals(rows + "x" + cols, expected, im.computeRank());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void identity() {
+        byte data[] = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            data[i] = (byte) (0x80 >>> i);
+        }
+        BitMatrix bm = new BitMatrix(8, 8);
+        bm.assignFromBits(new ArrayBits(data), 0);
+        Assert.assertEquals(8, bm.computeRank());
+    }
+
+    @Test
+    public void gf2MatrixSameRank() {
+        Random rng = new Random(23);
+        int sizes[][] = { { 32, 32 }, { 6, 8 }, { 8, 6 }, { 64, 64 }, { 3, 1 }, { 1, 3 },
+                          { 65, 65 }, { 100, 70 }, { 70, 100 }, { 200, 200 }, { 256, 512 } };
+        for (int size[] : sizes) {
+            int rows = size[0], cols = size[1];
+            for (int round = 0; round < 20; round++) {
+                int len = rows * cols + 5;
+                byte data[] = new byte[(len + 7) / 8];
+                rng.nextBytes(data);
+                if (round % 2 == 1) {
+                    // make some rows linear combinations of others
+                    for (int k = 0; k < 3 + round; k++) {
+                        int i = rng.nextInt(rows), a = rng.nextInt(rows), c = rng.nextInt(rows);
+                        for (int j = 0; j < cols; j++) {
+                            int bit = bit(data, a * cols + j) ^ bit(data, c * cols + j);
+                            int pos = i * cols + j;
+                            data[pos >>> 3] = (byte) ((data[pos >>> 3] & ~(0x80 >>> (pos & 7))) | (bit << (7 - (pos & 7))));
+                        }
+                    }
+                }
+                Bits bits = new ArrayBits(data, len);
+                int offset = 0;
+
+                GF2Matrix gm = new GF2Matrix(rows, cols);
+                gm.assignFromBits(bits, offset);
+                Assert.assertEquals(bits.bit(offset + rows * cols - 1), gm.get(rows - 1, cols - 1));
+                Assert.assertEquals(rows + "x" + cols, referenceRank(bits, offset, rows, cols), gm.computeRank());
+            }
+        }
+    }
+
+    private static int bit(byte data[], int pos) {
+        return (data[pos >>> 3] >>> (7 - (pos & 7))) & 1;
+    }
+}
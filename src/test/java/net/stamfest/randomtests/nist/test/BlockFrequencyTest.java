@@ -8,6 +8,8 @@ package net.stamfest.randomtests.nist.test;
 
 import junit.framework.Assert;
 import net.stamfest.randomtests.bits.ArrayBits;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.LongBits;
 import net.stamfest.randomtests.nist.BlockFrequency;
 import net.stamfest.randomtests.nist.Result;
 import org.junit.Test;
@@ -56,5 +58,26 @@ public class BlockFrequencyTest {
         f.report(System.out, results);
 
         Assert.assertEquals(0.706438, results[0].getPValue(), 0.00001);
+
+        // not array based: ones are counted without an index
+        Bits same = bits.xor(new ArrayBits(new byte[1]));
+        Assert.assertEquals(results[0].getPValue(), f.runTest(same)[0].getPValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooManyBlocks() {
+        // never read, the block count is checked first
+        LongBits huge = new LongBits() {
+            @Override
+            public int bit(long i) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public long getLength() {
+                return 20L * Integer.MAX_VALUE + 20;
+            }
+        };
+        new BlockFrequency(20).runTest(huge);
     }
 }
@@ -6,10 +6,15 @@
  */
 package net.stamfest.randomtests.nist.test;
 
+import java.util.Random;
 import junit.framework.Assert;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.RNGBits;
 import net.stamfest.randomtests.bits.StringBits;
 import net.stamfest.randomtests.nist.CumulativeSums;
+import net.stamfest.randomtests.nist.CumulativeSums.CumulativeSumsResult;
 import net.stamfest.randomtests.nist.Result;
+import org.apache.commons.math3.distribution.NormalDistribution;
 import org.junit.Test;
 
 /**
@@ -40,4 +45,64 @@ public class CumulativeSumsTest {
         Assert.assertEquals("forward", 0.219194, results[0].getPValue(), 0.000001);
         Assert.assertEquals("forward", 0.114866, results[1].getPValue(), 0.000001);
     }
+
+    /*
+     * The straightforward bit by bit implementation of the test, used as a
+     * reference. Returns z, zrev and both p-values.
+     */
+    private static double[] reference(Bits b) {
+        NormalDistribution nd = new NormalDistribution();
+        long n = b.getLength();
+        double sqrtN = Math.sqrt(n);
+        long S = 0, sup = 0, inf = 0, z = 0, zrev = 0, k;
+        for (k = 0; k < n; k++) {
+            S += b.bit((int) k) != 0 ? 1 : -1;
+            if (S > sup) {
+                sup++;
+            }
+            if (S < inf) {
+                inf--;
+            }
+            z = (sup > -inf) ? sup : -inf;
+            zrev = (sup - S > S - inf) ? sup - S : S - inf;
+        }
+        double result[] = new double[] { z, zrev, 0, 0 };
+        long zz[] = { z, zrev };
+        for (int r = 0; r < 2; r++) {
+            double sum1 = 0.0, sum2 = 0.0;
+            for (k = (-n / zz[r] + 1) / 4; k <= (n / zz[r] - 1) / 4; k++) {
+                sum1 += nd.cumulativeProbability(((4 * k + 1) * zz[r]) / sqrtN);
+                sum1 -= nd.cumulativeProbability(((4 * k - 1) * zz[r]) / sqrtN);
+            }
+            for (k = (-n / zz[r] - 3) / 4; k <= (n / zz[r] - 1) / 4; k++) {
+                sum2 += nd.cumulativeProbability(((4 * k + 3) * zz[r]) / sqrtN);
+                sum2 -= nd.cumulativeProbability(((4 * k + 1) * zz[r]) / sqrtN);
+            }
+            result[2 + r] = 1.0 - sum1 + sum2;
+        }
+        return result;
+    }
+
+    @Test
+    public void sameAsReference() {
+        Random rng = new Random(19);
+        CumulativeSums cs = new CumulativeSums();
+        int lengths[] = { 1, 7, 8, 63, 64, 65, 100, 1000, 4099, 100000 };
+        for (int len : lengths) {
+            for (int round = 0; round < 4; round++) {
+                Bits bits = new RNGBits(rng, len);
+                if (round == 3) {
+                    // heavily biased sequence with a large excursion
+                    bits = new StringBits(new String(new char[len]).replace('\0', '1'));
+                }
+                double expected[] = reference(bits);
+                Result[] results = cs.runTest(bits);
+                for (int r = 0; r < 2; r++) {
+                    CumulativeSumsResult res = (CumulativeSumsResult) results[r];
+                    Assert.assertEquals("len " + len + " z", (long) expected[r], res.getPartialSum());
+                    Assert.assertEquals("len " + len + " p-value", expected[2 + r], res.getPValue(), 0.0);
+                }
+            }
+        }
+    }
 }
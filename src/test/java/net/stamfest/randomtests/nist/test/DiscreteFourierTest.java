@@ -7,12 +7,23 @@
 package net.stamfest.randomtests.nist.test;
 
 import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import junit.framework.Assert;
 import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.RNGBits;
 import net.stamfest.randomtests.bits.StringBits;
 import net.stamfest.randomtests.nist.DiscreteFourierTransform;
+import net.stamfest.randomtests.nist.DiscreteFourierTransform.DiscreteFourierTransformResult;
 import net.stamfest.randomtests.nist.Result;
 import net.stamfest.randomtests.utils.IO;
+import org.jtransforms.fft.DoubleFFT_1D;
 import org.junit.Test;
 
 /**
@@ -41,4 +52,103 @@ public class DiscreteFourierTest {
         Assert.assertEquals(0.646355, results[0].getPValue(), 0.000001);
     }
 
+    /* plans and buffers are shared or reused, results must not be affected */
+    @Test
+    public void concurrent() throws Exception {
+        Random rng = new Random(24);
+        int lengths[] = { 1000, 1009, 4096, 1000, 1009, 4096, 30000 };
+        final List<Bits> sequences = new ArrayList<>();
+        final List<Double> expected = new ArrayList<>();
+        for (int round = 0; round < 3; round++) {
+            for (int len : lengths) {
+                Bits b = new RNGBits(rng, len);
+                sequences.add(b);
+                expected.add(new DiscreteFourierTransform().runTest(b)[0].getPValue());
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Double>> futures = new ArrayList<>();
+            for (int k = 0; k < 4 * sequences.size(); k++) {
+                final Bits b = sequences.get(k % sequences.size());
+                futures.add(executor.submit(() -> new DiscreteFourierTransform().runTest(b)[0].getPValue()));
+            }
+            for (int k = 0; k < futures.size(); k++) {
+                Assert.assertEquals(expected.get(k % sequences.size()), futures.get(k).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void floatPrecision() throws IOException {
+        DiscreteFourierTransform dft = new DiscreteFourierTransform(32);
+        Assert.assertEquals("DiscreteFourierTransform(32)", dft.getDescription());
+
+        Bits b = new StringBits("1100100100001111110110101010001000100001011010001100001000110100110001001100011001100010100010111000");
+        Assert.assertEquals(0.646355, dft.runTest(b)[0].getPValue(), 0.000001);
+
+        Random rng = new Random(25);
+        int lengths[] = { 1000, 1009, 65536, 100000, 1 << 20, 1000003 };
+        for (int len : lengths) {
+            for (int round = 0; round < 3; round++) {
+                Bits bits = new RNGBits(rng, len);
+                DiscreteFourierTransformResult expected
+                        = (DiscreteFourierTransformResult) new DiscreteFourierTransform().runTest(bits)[0];
+                DiscreteFourierTransformResult r
+                        = (DiscreteFourierTransformResult) dft.runTest(bits)[0];
+                Assert.assertEquals("len " + len, expected.getN_l(), r.getN_l());
+                Assert.assertEquals("len " + len, expected.getPValue(), r.getPValue());
+            }
+        }
+    }
+
+    /* single coefficients must match the double precision transform */
+    @Test
+    public void magnitude() {
+        Random rng = new Random(26);
+        int lengths[] = { 1, 7, 100, 1009, 4096, 65537, 1000003 };
+        for (int n : lengths) {
+            Bits b = new RNGBits(rng, n);
+            double X[] = new double[n];
+            for (int i = 0; i < n; i++) {
+                X[i] = 2 * b.bit(i) - 1;
+            }
+            new DoubleFFT_1D(n).realForward(X);
+
+            int ks[] = { 0, 1, 2, n / 3, n / 2 - 1, rng.nextInt(Math.max(1, n / 2)) };
+            for (int k : ks) {
+                if (k < 0 || k > 0 && 2 * k + 1 >= n) {
+                    continue;
+                }
+                double expected = (k == 0) ? Math.abs(X[0]) : Math.hypot(X[2 * k], X[2 * k + 1]);
+                Assert.assertEquals("n " + n + " k " + k, expected, DiscreteFourierTransform.magnitude(b, k),
+                                    1e-9 * Math.sqrt(n) + 1e-12 * expected);
+            }
+        }
+    }
+
+    /* too many ambiguous magnitudes: give up, releasing the float buffer */
+    @Test
+    public void floatFallback() throws Exception {
+        Method countFloat = DiscreteFourierTransform.class.getDeclaredMethod("countFloat", Bits.class, double.class, int.class);
+        countFloat.setAccessible(true);
+        Field floatScratch = DiscreteFourierTransform.class.getDeclaredField("floatScratch");
+        floatScratch.setAccessible(true);
+
+        int n = 1 << 22;
+        Bits b = new RNGBits(new Random(27), n);
+        double upperBound = Math.sqrt(2.995732274 * n);
+        DiscreteFourierTransformResult expected
+                = (DiscreteFourierTransformResult) new DiscreteFourierTransform().runTest(b)[0];
+
+        int count = (Integer) countFloat.invoke(null, b, upperBound, 1000);
+        Assert.assertEquals(expected.getN_l(), (double) count);
+        Assert.assertNotNull(((ThreadLocal<?>) floatScratch.get(null)).get());
+
+        Assert.assertEquals(-1, countFloat.invoke(null, b, upperBound, 0));
+        Assert.assertNull(((ThreadLocal<?>) floatScratch.get(null)).get());
+    }
 }
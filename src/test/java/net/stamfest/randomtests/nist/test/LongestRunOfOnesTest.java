@@ -6,9 +6,12 @@
  */
 package net.stamfest.randomtests.nist.test;
 
+import java.util.Random;
 import junit.framework.Assert;
+import net.stamfest.randomtests.bits.ArrayBits;
 import net.stamfest.randomtests.bits.StringBits;
 import net.stamfest.randomtests.nist.LongestRunOfOnes;
+import net.stamfest.randomtests.nist.LongestRunOfOnes.LongestRunOfOnesResult;
 import net.stamfest.randomtests.nist.Result;
 import org.junit.Test;
 
@@ -26,4 +29,47 @@ public class LongestRunOfOnesTest {
         
         Assert.assertEquals(0.180609, results[0].getPValue(), 0.000001);
     }
+
+    @Test
+    public void longRuns() {
+        Random rng = new Random(21);
+        LongestRunOfOnes l = new LongestRunOfOnes();
+        int lengths[] = { 1000, 10000, 800000 };
+        for (int len : lengths) {
+            // random bytes, with every fourth byte forced to all ones
+            byte data[] = new byte[(len + 7) / 8];
+            rng.nextBytes(data);
+            for (int k = 0; k < data.length; k++) {
+                if (rng.nextInt(4) == 0) {
+                    data[k] = (byte) 0xff;
+                }
+            }
+            ArrayBits bits = new ArrayBits(data, len);
+
+            LongestRunOfOnesResult r = (LongestRunOfOnesResult) l.runTest(bits)[0];
+            int blockLen = r.getBlockLen();
+            int hist[] = new int[blockLen + 1];
+            for (int i = 0; i < r.getNumberOfBlocks(); i++) {
+                int longest = 0, run = 0;
+                for (int j = 0; j < blockLen; j++) {
+                    run = (bits.bit(i * blockLen + j) != 0) ? run + 1 : 0;
+                    longest = Math.max(longest, run);
+                }
+                hist[longest]++;
+            }
+
+            // first and last category collect the lower and upper tails
+            int first = (r.getK() == 3) ? 1 : (r.getK() == 5) ? 4 : 10;
+            int nu[] = r.getNu();
+            for (int c = 0; c <= r.getK(); c++) {
+                int lo = (c == 0) ? 0 : first + c;
+                int hi = (c == r.getK()) ? blockLen : first + c;
+                int expected = 0;
+                for (int v = lo; v <= hi; v++) {
+                    expected += hist[v];
+                }
+                Assert.assertEquals("len " + len + " category " + c, expected, nu[c]);
+            }
+        }
+    }
 }
@@ -0,0 +1,94 @@
+/*
+ * This is copyrighted code.  All rights reserved.
+ * Please see the file license.txt for details.
+ */
+package net.stamfest.randomtests.nist.test;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Random;
+import junit.framework.Assert;
+import net.stamfest.randomtests.TestFactory;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.RNGBits;
+import net.stamfest.randomtests.nist.MatrixRank;
+import net.stamfest.randomtests.nist.MatrixRank.MatrixRankResult;
+import net.stamfest.randomtests.nist.NistTest;
+import net.stamfest.randomtests.nist.Rank;
+import net.stamfest.randomtests.nist.Result;
+import net.stamfest.randomtests.utils.IO;
+import org.junit.Test;
+
+/**
+ *
+ * @author Peter Stamfest
+ */
+public class MatrixRankTest {
+    @Test
+    public void sameAsRank() throws IOException {
+        Bits b = IO.readAscii(MatrixRankTest.class.getResourceAsStream("/data.e"), 100000);
+
+        MatrixRank mr = new MatrixRank(32, 32);
+        Result[] results = mr.runTest(b);
+        mr.report(System.out, results);
+
+        Assert.assertEquals(0.532069, results[0].getPValue(), 0.00001);
+        Assert.assertEquals(new Rank().runTest(b)[0].getPValue(), results[0].getPValue(), 1e-12);
+    }
+
+    @Test
+    public void probabilities() {
+        int sizes[][] = { { 2, 2 }, { 3, 5 }, { 8, 8 }, { 10, 6 } };
+        for (int size[] : sizes) {
+            double sum = 0;
+            for (int r = 0; r <= Math.min(size[0], size[1]); r++) {
+                sum += MatrixRank.rankProbability(size[0], size[1], r);
+            }
+            Assert.assertEquals(1.0, sum, 1e-12);
+        }
+        // of the 16 2x2 matrices, 6 have rank 2 and 9 have rank 1
+        Assert.assertEquals(6.0 / 16, MatrixRank.rankProbability(2, 2, 2), 1e-15);
+        Assert.assertEquals(9.0 / 16, MatrixRank.rankProbability(2, 2, 1), 1e-15);
+
+        // converges to 0.2888 for full rank
+        Assert.assertEquals(0.288788, MatrixRank.rankProbability(1024, 1024, 1024), 0.000001);
+    }
+
+    @Test
+    public void largeMatrices() throws Exception {
+        NistTest t = TestFactory.getInstance().parseTestSpec("MatrixRank(256,256)").getInstance();
+        Assert.assertEquals("MatrixRank(256,256)", t.getDescription());
+
+        Bits b = new RNGBits(new Random(23), 40 * 256 * 256 + 17);
+        Result[] results = t.runTest(b);
+        t.report(new PrintWriter(System.out, true), results);
+
+        MatrixRankResult r = (MatrixRankResult) results[0];
+        Assert.assertEquals(40, r.getNumberOfMatrices());
+        Assert.assertEquals(17, r.getDiscarded());
+        Assert.assertTrue(r.getPValue() > 0.0001);
+    }
+
+    @Test
+    public void nonSquare() {
+        Random rng = new Random(230);
+        int sizes[][] = { { 33, 32 }, { 32, 36 }, { 100, 98 } };
+        for (int size[] : sizes) {
+            MatrixRank mr = new MatrixRank(size[0], size[1]);
+            Bits b = new RNGBits(rng, mr.getInputSizeRecommendation());
+            MatrixRankResult r = (MatrixRankResult) mr.runTest(b)[0];
+            double p[] = r.getProbabilities();
+            Assert.assertEquals(1.0, p[0] + p[1] + p[2], 1e-12);
+            Assert.assertTrue(p[2] > 0);
+            Assert.assertTrue(r.getChi2() >= 0);
+            Assert.assertTrue(r.getPValue() > 0.0001 && r.getPValue() <= 1.0);
+            // at least 5 matrices expected in every category
+            Assert.assertTrue(r.getNumberOfMatrices() * p[2] >= 5);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void farFromSquare() {
+        new MatrixRank(2, 64);
+    }
+}
@@ -6,10 +6,14 @@
  */
 package net.stamfest.randomtests.nist.test;
 
+import java.util.Random;
 import junit.framework.Assert;
 import net.stamfest.randomtests.bits.ArrayBits;
+import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.RNGBits;
 import net.stamfest.randomtests.nist.Result;
 import net.stamfest.randomtests.nist.Runs;
+import net.stamfest.randomtests.nist.Runs.RunsResult;
 import org.junit.Test;
 
 /**
@@ -29,4 +33,32 @@ public class RunsTest {
 
         Assert.assertEquals(0.147232, results[0].getPValue(), 0.000001);
     }
+
+    @Test
+    public void runCount() {
+        Random rng = new Random(20);
+        Runs r = new Runs();
+        int lengths[] = { 2, 63, 64, 65, 127, 128, 129, 1000, 10007 };
+        for (int len : lengths) {
+            for (int round = 0; round < 20; round++) {
+                Bits bits = new RNGBits(rng, len);
+                int ones = 0, runs = 1;
+                for (int k = 0; k < len; k++) {
+                    ones += bits.bit(k);
+                    if (k > 0 && bits.bit(k) != bits.bit(k - 1)) {
+                        runs++;
+                    }
+                }
+                Result[] results = r.runTest(bits);
+                double pi = (double) ones / len;
+                if (Math.abs(pi - 0.5) > (2.0 / Math.sqrt(len))) {
+                    Assert.assertNull(results);
+                    continue;
+                }
+                RunsResult res = (RunsResult) results[0];
+                Assert.assertEquals("len " + len, pi, res.getPi(), 0.0);
+                Assert.assertEquals("len " + len, runs, res.getV());
+            }
+        }
+    }
 }
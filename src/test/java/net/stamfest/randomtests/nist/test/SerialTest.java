@@ -9,6 +9,7 @@ package net.stamfest.randomtests.nist.test;
 import java.io.IOException;
 import junit.framework.Assert;
 import net.stamfest.randomtests.bits.Bits;
+import net.stamfest.randomtests.bits.StringBits;
 import net.stamfest.randomtests.nist.Result;
 import net.stamfest.randomtests.nist.Serial;
 import net.stamfest.randomtests.utils.IO;
@@ -39,4 +40,19 @@ public class SerialTest {
         Assert.assertEquals("p_value1", 0.843764, s1.getPValue(), 0.000001);
         Assert.assertEquals("p_value2", 0.561915, s2.getPValue(), 0.000001);
     }
+
+    /**
+     * Example 2.11.4 from the NIST paper (m = 3, n = 10). The short sequence
+     * makes the patterns wrap around at the end of the sequence.
+     */
+    @Test
+    public void example2114() {
+        Bits bits = new StringBits("0011011101");
+        Serial s = new Serial(3);
+        Result[] results = s.runTest(bits);
+        s.report(System.out, results);
+
+        Assert.assertEquals("p_value1", 0.808792, results[0].getPValue(), 0.000001);
+        Assert.assertEquals("p_value2", 0.670320, results[1].getPValue(), 0.000001);
+    }
 }
@@ -19,6 +19,7 @@ import net.stamfest.randomtests.ParallelSuiteExecutor;
 import net.stamfest.randomtests.bits.Bits;
 import net.stamfest.randomtests.Suite;
 import net.stamfest.randomtests.nist.NistTest;
+import net.stamfest.randomtests.nist.Result;
 import net.stamfest.randomtests.utils.Histogram;
 import net.stamfest.randomtests.utils.IO;
 import org.junit.Assert;
@@ -125,6 +126,33 @@ public class SuiteTest {
 
     }
     
+    @Test
+    public void materialize() throws IOException {
+        InputStream is = SuiteTest.class.getResourceAsStream("/data.e");
+        Bits bits = IO.readAscii(is, 20000);
+        // a chain of views
+        Bits view = bits.subSeq(0, 10000, 1).xor(bits.reverse().reverse().subSeq(10000, 10000, 1));
+
+        Suite materialized = Suite.getStandardTestSuite(null);
+        Suite direct = Suite.getStandardTestSuite(null);
+        direct.setMaterialize(false);
+        Assert.assertTrue(materialized.isMaterialize());
+
+        List<Result[]> r1 = materialized.runSuite(view).getResults();
+        List<Result[]> r2 = direct.runSuite(view).getResults();
+        Assert.assertEquals(r1.size(), r2.size());
+        for (int i = 0; i < r1.size(); i++) {
+            Assert.assertEquals(r1.get(i) == null, r2.get(i) == null);
+            if (r1.get(i) == null) {
+                continue;
+            }
+            Assert.assertEquals(r1.get(i).length, r2.get(i).length);
+            for (int j = 0; j < r1.get(i).length; j++) {
+                Assert.assertEquals(r2.get(i)[j].getPValue(), r1.get(i)[j].getPValue(), 0.0);
+            }
+        }
+    }
+
    //  @Test
     public void xx() throws IOException {
         InputStream resultsInputStream = SuiteTest.class.getResourceAsStream("/BBS-test-results");